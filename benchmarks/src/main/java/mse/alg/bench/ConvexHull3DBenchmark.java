@@ -0,0 +1,60 @@
+package mse.alg.bench;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import mse.alg.ex1.ConvexHull2;
+import mse.alg.ex3.JTS.ConvexHull3D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the 3D convex hull against the 2D path ({@link ConvexHull2} on the xy projection
+ * of the same points). The xy coordinates follow the 2D distributions, z is uniform in [0, 1000].
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ConvexHull3DBenchmark {
+    private static final long SEED = 42;
+
+    @Param({ "UNIFORM_SQUARE", "UNIFORM_DISK", "ON_CIRCLE", "CLUSTERED" })
+    public PointDistribution distribution;
+
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    public int size;
+
+    private final GeometryFactory factory = new GeometryFactory();
+    private mse.alg.ex3.JTS.Coordinate[] pts3D;
+    private Coordinate[] pts2D;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        distribution.generate(SEED, xs, ys, size);
+
+        Random rnd = new Random(SEED);
+        pts3D = new mse.alg.ex3.JTS.Coordinate[size];
+        pts2D = new Coordinate[size];
+        for (int i = 0; i < size; i++) {
+            pts3D[i] = new mse.alg.ex3.JTS.Coordinate(xs[i], ys[i], 1000*rnd.nextDouble());
+            pts2D[i] = new Coordinate(xs[i], ys[i]);
+        }
+    }
+
+    @Benchmark
+    public ConvexHull3D convexHull3D() {
+        return new ConvexHull3D(pts3D);
+    }
+
+    @Benchmark
+    public Geometry convexHull2() {
+        return new ConvexHull2(pts2D.clone(), factory).getConvexHull();
+    }
+}
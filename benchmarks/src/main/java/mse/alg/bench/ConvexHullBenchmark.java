@@ -0,0 +1,81 @@
+package mse.alg.bench;
+
+import com.vividsolutions.jts.algorithm.ConvexHull;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import mse.alg.ex1.ConvexHull2;
+import mse.alg.ex1.PackedConvexHull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the convex hull implementations against JTS's {@link ConvexHull}.
+ * <p>
+ * Only the hull computation is measured: the points are generated once per trial.
+ * {@link ConvexHull2} sorts its input in place, therefore it gets a fresh copy
+ * of the coordinate array in every invocation (the copy costs O(n), the hull O(n log n)).
+ * Run with <code>-prof gc</code> (or through {@link #main}) to get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ConvexHullBenchmark {
+    private static final long SEED = 42;
+
+    @Param({ "UNIFORM_SQUARE", "UNIFORM_DISK", "ON_CIRCLE", "CLUSTERED" })
+    public PointDistribution distribution;
+
+    @Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+    public int size;
+
+    private final GeometryFactory factory = new GeometryFactory();
+    private Coordinate[] pts;
+    private double[] xs;
+    private double[] ys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        xs = new double[size];
+        ys = new double[size];
+        distribution.generate(SEED, xs, ys, size);
+        pts = distribution.generate(SEED, size);
+    }
+
+    @Benchmark
+    public Geometry convexHull2() {
+        return new ConvexHull2(pts.clone(), factory).getConvexHull();
+    }
+
+    @Benchmark
+    public Geometry convexHull2Parallel() {
+        ConvexHull2 hull = new ConvexHull2(pts.clone(), factory);
+        hull.setParallel(true);
+        return hull.getConvexHull();
+    }
+
+    @Benchmark
+    public Geometry packedConvexHull() {
+        return new PackedConvexHull(xs, ys, size, factory).getConvexHull();
+    }
+
+    @Benchmark
+    public Geometry jtsConvexHull() {
+        return new ConvexHull(pts, factory).getConvexHull();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConvexHullBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
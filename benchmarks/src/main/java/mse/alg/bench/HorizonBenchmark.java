@@ -0,0 +1,105 @@
+package mse.alg.bench;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.ex2.Horizon;
+import mse.alg.ex2.HorizonAlgorithm;
+import mse.alg.ex2.IO;
+import mse.alg.ex2.Main;
+import mse.alg.ex2.MonotoneChain;
+import mse.alg.ex2.Terrain;
+import mse.alg.ex2.TerrainQuadtree;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the horizon computation ({@link HorizonAlgorithm}) for the front facing triangles of a terrain.
+ * The triangulation and the projection are part of the setup, they are measured separately by
+ * computeChains (grid terrains are triangulated implicitly, see {@link Main#computeChains}).
+ * computeHorizonLevelOfDetail is the whole computation for a terrain triangulated in advance,
+ * which skips the hidden tiles of a {@link TerrainQuadtree}.
+ * <p>
+ * The terrain is the csv file given by the parameter "terrain" (x;y;z per line, e.g. Zurich25m.csv
+ * of exercise 2, viewpoint Buerkliplatz) or a synthetic 25 m grid of gridSize x gridSize points:
+ * <pre>
+ * java -jar target/benchmarks.jar HorizonBenchmark -p terrain=/data/Zurich25m.csv
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class HorizonBenchmark {
+    private static final long SEED = 42;
+    private static final double SPACING = 25;
+
+    @Param({ "synthetic" })
+    public String terrain;
+
+    @Param({ "100", "200", "400" })
+    public int gridSize;
+
+    private Coordinate viewPoint;
+    private List<Coordinate> pts;
+    private List<MonotoneChain> chains;
+    private TerrainQuadtree quadtree;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (terrain.equals("synthetic")) {
+            pts = createTerrain(gridSize);
+            Coordinate center = pts.get(gridSize/2*gridSize + gridSize/2);
+            viewPoint = new Coordinate(center.x + SPACING/2, center.y + SPACING/2, center.z + 1.8);
+        } else {
+            pts = IO.readTerrain(terrain);
+            viewPoint = new Coordinate(683200, 246700, 406 + 1.8);
+        }
+
+        chains = Main.computeChains(viewPoint, pts);
+        quadtree = new TerrainQuadtree(Terrain.of(pts));
+    }
+
+    /**
+     * Hilly terrain: a few sine waves plus seeded noise
+     */
+    private static List<Coordinate> createTerrain(int size) {
+        Random rnd = new Random(SEED);
+        List<Coordinate> pts = new ArrayList<>(size*size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double x = j*SPACING, y = i*SPACING;
+                double z = 400 + 150*Math.sin(x/900)*Math.cos(y/1300) + 60*Math.sin(x/230 + y/370) + 5*rnd.nextDouble();
+                pts.add(new Coordinate(x, y, z));
+            }
+        }
+        return pts;
+    }
+
+    @Benchmark
+    public List<MonotoneChain> computeChains() {
+        return Main.computeChains(viewPoint, pts);
+    }
+
+    @Benchmark
+    public Horizon computeHorizon() {
+        return new HorizonAlgorithm().computeHorizon(chains);
+    }
+
+    @Benchmark
+    public Horizon computeHorizonParallel() {
+        HorizonAlgorithm algorithm = new HorizonAlgorithm();
+        algorithm.setParallel(true);
+        return algorithm.computeHorizon(chains);
+    }
+
+    @Benchmark
+    public Horizon computeHorizonLevelOfDetail() {
+        return quadtree.computeHorizon(viewPoint, 0);
+    }
+}
@@ -0,0 +1,99 @@
+package mse.alg.bench;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.util.Random;
+
+/**
+ * Point sets used by the benchmarks. All points lie in [0, 1000] x [0, 1000].
+ */
+public enum PointDistribution {
+    /**
+     * Uniform in the square: h = O(log n)
+     */
+    UNIFORM_SQUARE {
+        @Override
+        void fill(Random rnd, double[] xs, double[] ys, int n) {
+            for (int i = 0; i < n; i++) {
+                xs[i] = SIZE*rnd.nextDouble();
+                ys[i] = SIZE*rnd.nextDouble();
+            }
+        }
+    },
+    /**
+     * Uniform in the disk: h = O(n^(1/3))
+     */
+    UNIFORM_DISK {
+        @Override
+        void fill(Random rnd, double[] xs, double[] ys, int n) {
+            for (int i = 0; i < n; i++) {
+                double r = RADIUS*Math.sqrt(rnd.nextDouble());
+                double a = 2*Math.PI*rnd.nextDouble();
+                xs[i] = RADIUS + r*Math.cos(a);
+                ys[i] = RADIUS + r*Math.sin(a);
+            }
+        }
+    },
+    /**
+     * On the circle: every point is a hull vertex (worst case)
+     */
+    ON_CIRCLE {
+        @Override
+        void fill(Random rnd, double[] xs, double[] ys, int n) {
+            for (int i = 0; i < n; i++) {
+                double a = 2*Math.PI*rnd.nextDouble();
+                xs[i] = RADIUS + RADIUS*Math.cos(a);
+                ys[i] = RADIUS + RADIUS*Math.sin(a);
+            }
+        }
+    },
+    /**
+     * Gaussian clusters around a few random centers
+     */
+    CLUSTERED {
+        @Override
+        void fill(Random rnd, double[] xs, double[] ys, int n) {
+            final int clusters = 16;
+            double[] cx = new double[clusters];
+            double[] cy = new double[clusters];
+            for (int c = 0; c < clusters; c++) {
+                cx[c] = 100 + 800*rnd.nextDouble();
+                cy[c] = 100 + 800*rnd.nextDouble();
+            }
+            for (int i = 0; i < n; i++) {
+                int c = rnd.nextInt(clusters);
+                xs[i] = Math.min(SIZE, Math.max(0, cx[c] + 30*rnd.nextGaussian()));
+                ys[i] = Math.min(SIZE, Math.max(0, cy[c] + 30*rnd.nextGaussian()));
+            }
+        }
+    };
+
+    private static final double SIZE = 1000;
+    private static final double RADIUS = SIZE/2;
+
+    abstract void fill(Random rnd, double[] xs, double[] ys, int n);
+
+    /**
+     * Generates n points into xs and ys
+     * @param seed random seed, the same seed gives the same points
+     */
+    public void generate(long seed, double[] xs, double[] ys, int n) {
+        fill(new Random(seed), xs, ys, n);
+    }
+
+    /**
+     * Generates n points as coordinates
+     * @param seed random seed, the same seed gives the same points
+     */
+    public Coordinate[] generate(long seed, int n) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        generate(seed, xs, ys, n);
+
+        Coordinate[] pts = new Coordinate[n];
+        for (int i = 0; i < n; i++) {
+            pts[i] = new Coordinate(xs[i], ys[i]);
+        }
+        return pts;
+    }
+}
@@ -0,0 +1,245 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * Adaptive exact orientation predicate after J. R. Shewchuk:
+ * "Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates".
+ * <p>
+ * The determinant is first evaluated in plain floating point arithmetic. Only if its
+ * absolute value is below the forward error bound, the computation escalates step by step
+ * to exact expansion arithmetic. The result is always the sign of the exact determinant.
+ * Same sign convention as {@link com.vividsolutions.jts.algorithm.CGAlgorithms#orientationIndex}.
+ */
+public final class Orientation {
+    public static final int CLOCKWISE = -1;
+    public static final int COLLINEAR = 0;
+    public static final int COUNTERCLOCKWISE = 1;
+
+    private static final double EPSILON = 0x1.0p-53;                // half ulp of 1.0
+    private static final double SPLITTER = 0x1.0p27 + 1.0;          // splits a double into two 26 bit halves
+    private static final double RESULT_ERRBOUND = (3.0 + 8.0*EPSILON)*EPSILON;
+    private static final double CCW_ERRBOUND_A = (3.0 + 16.0*EPSILON)*EPSILON;
+    private static final double CCW_ERRBOUND_B = (2.0 + 12.0*EPSILON)*EPSILON;
+    private static final double CCW_ERRBOUND_C = (9.0 + 64.0*EPSILON)*EPSILON*EPSILON;
+
+    private Orientation() {}
+
+    /**
+     * Returns the orientation of point q relative to the directed line p1-p2.
+     *
+     * @return 1 if q is left of p1-p2 (counter clockwise), -1 if right (clockwise), 0 if collinear
+     */
+    public static int index(Coordinate p1, Coordinate p2, Coordinate q) {
+        return index(p1.x, p1.y, p2.x, p2.y, q.x, q.y);
+    }
+
+    /**
+     * Returns the orientation of point c relative to the directed line a-b.
+     *
+     * @return 1 if c is left of a-b (counter clockwise), -1 if right (clockwise), 0 if collinear
+     */
+    public static int index(double ax, double ay, double bx, double by, double cx, double cy) {
+        double detleft = (ax - cx)*(by - cy);
+        double detright = (ay - cy)*(bx - cx);
+        double det = detleft - detright;
+        double detsum;
+
+        if (detleft > 0.0) {
+            if (detright <= 0.0) return signum(det);
+            detsum = detleft + detright;
+        } else if (detleft < 0.0) {
+            if (detright >= 0.0) return signum(det);
+            detsum = -detleft - detright;
+        } else {
+            return signum(det);
+        }
+
+        double errbound = CCW_ERRBOUND_A*detsum;
+        if (det >= errbound || -det >= errbound) {
+            return signum(det);
+        }
+        return signum(adapt(ax, ay, bx, by, cx, cy, detsum));
+    }
+
+    /**
+     * Stages B, C and D of Shewchuk's orient2dadapt
+     */
+    private static double adapt(double ax, double ay, double bx, double by, double cx, double cy, double detsum) {
+        double acx = ax - cx;
+        double bcx = bx - cx;
+        double acy = ay - cy;
+        double bcy = by - cy;
+
+        // B: exact determinant of the rounded differences
+        double[] b = new double[4];
+        twoTwoDiff(acx*bcy, twoProductTail(acx, bcy, acx*bcy), acy*bcx, twoProductTail(acy, bcx, acy*bcx), b);
+
+        double det = b[0] + b[1] + b[2] + b[3];
+        double errbound = CCW_ERRBOUND_B*detsum;
+        if (det >= errbound || -det >= errbound) {
+            return det;
+        }
+
+        double acxtail = twoDiffTail(ax, cx, acx);
+        double bcxtail = twoDiffTail(bx, cx, bcx);
+        double acytail = twoDiffTail(ay, cy, acy);
+        double bcytail = twoDiffTail(by, cy, bcy);
+        if (acxtail == 0.0 && acytail == 0.0 && bcxtail == 0.0 && bcytail == 0.0) {
+            return det;
+        }
+
+        // C: first order correction by the tails
+        errbound = CCW_ERRBOUND_C*detsum + RESULT_ERRBOUND*Math.abs(det);
+        det += (acx*bcytail + bcy*acxtail) - (acy*bcxtail + bcx*acytail);
+        if (det >= errbound || -det >= errbound) {
+            return det;
+        }
+
+        // D: exact
+        double[] u = new double[4];
+        double[] c1 = new double[8];
+        double[] c2 = new double[12];
+        double[] d = new double[16];
+
+        twoTwoDiff(acxtail*bcy, twoProductTail(acxtail, bcy, acxtail*bcy), acytail*bcx, twoProductTail(acytail, bcx, acytail*bcx), u);
+        int c1Length = fastExpansionSumZeroElim(4, b, 4, u, c1);
+
+        twoTwoDiff(acx*bcytail, twoProductTail(acx, bcytail, acx*bcytail), acy*bcxtail, twoProductTail(acy, bcxtail, acy*bcxtail), u);
+        int c2Length = fastExpansionSumZeroElim(c1Length, c1, 4, u, c2);
+
+        twoTwoDiff(acxtail*bcytail, twoProductTail(acxtail, bcytail, acxtail*bcytail), acytail*bcxtail, twoProductTail(acytail, bcxtail, acytail*bcxtail), u);
+        int dLength = fastExpansionSumZeroElim(c2Length, c2, 4, u, d);
+
+        return d[dLength - 1];
+    }
+
+    private static int signum(double x) {
+        if (x > 0) return COUNTERCLOCKWISE;
+        if (x < 0) return CLOCKWISE;
+        return COLLINEAR;
+    }
+
+    /**
+     * Rounding error of x = a - b
+     */
+    private static double twoDiffTail(double a, double b, double x) {
+        double bvirt = a - x;
+        double avirt = x + bvirt;
+        double bround = bvirt - b;
+        double around = a - avirt;
+        return around + bround;
+    }
+
+    /**
+     * Rounding error of x = a * b
+     */
+    private static double twoProductTail(double a, double b, double x) {
+        double c = SPLITTER*a;
+        double ahi = c - (c - a);
+        double alo = a - ahi;
+        c = SPLITTER*b;
+        double bhi = c - (c - b);
+        double blo = b - bhi;
+        double err1 = x - (ahi*bhi);
+        double err2 = err1 - (alo*bhi);
+        double err3 = err2 - (ahi*blo);
+        return (alo*blo) - err3;
+    }
+
+    /**
+     * Exact difference of two two-component expansions (a1 + a0) - (b1 + b0)
+     * @param x resulting expansion x[0..3] in increasing order of magnitude
+     */
+    private static void twoTwoDiff(double a1, double a0, double b1, double b0, double[] x) {
+        // (a1, a0) - b0
+        double i = a0 - b0;
+        x[0] = twoDiffTail(a0, b0, i);
+        double j = a1 + i;
+        double o = twoSumTail(a1, i, j);
+
+        // (j, o) - b1
+        i = o - b1;
+        x[1] = twoDiffTail(o, b1, i);
+        x[3] = j + i;
+        x[2] = twoSumTail(j, i, x[3]);
+    }
+
+    /**
+     * Rounding error of x = a + b
+     */
+    private static double twoSumTail(double a, double b, double x) {
+        double bvirt = x - a;
+        double avirt = x - bvirt;
+        double bround = b - bvirt;
+        double around = a - avirt;
+        return around + bround;
+    }
+
+    /**
+     * Sums two expansions e and f into h and eliminates zero components
+     * @return length of h
+     */
+    private static int fastExpansionSumZeroElim(int elen, double[] e, int flen, double[] f, double[] h) {
+        double q, qnew, hh;
+        double enow = e[0];
+        double fnow = f[0];
+        int eindex = 0, findex = 0, hindex = 0;
+
+        if ((fnow > enow) == (fnow > -enow)) {
+            q = enow;
+            enow = (++eindex < elen) ? e[eindex] : 0.0;
+        } else {
+            q = fnow;
+            fnow = (++findex < flen) ? f[findex] : 0.0;
+        }
+
+        if (eindex < elen && findex < flen) {
+            if ((fnow > enow) == (fnow > -enow)) {
+                qnew = enow + q;
+                hh = q - (qnew - enow);
+                enow = (++eindex < elen) ? e[eindex] : 0.0;
+            } else {
+                qnew = fnow + q;
+                hh = q - (qnew - fnow);
+                fnow = (++findex < flen) ? f[findex] : 0.0;
+            }
+            q = qnew;
+            if (hh != 0.0) h[hindex++] = hh;
+
+            while (eindex < elen && findex < flen) {
+                if ((fnow > enow) == (fnow > -enow)) {
+                    qnew = q + enow;
+                    hh = twoSumTail(q, enow, qnew);
+                    enow = (++eindex < elen) ? e[eindex] : 0.0;
+                } else {
+                    qnew = q + fnow;
+                    hh = twoSumTail(q, fnow, qnew);
+                    fnow = (++findex < flen) ? f[findex] : 0.0;
+                }
+                q = qnew;
+                if (hh != 0.0) h[hindex++] = hh;
+            }
+        }
+
+        while (eindex < elen) {
+            qnew = q + enow;
+            hh = twoSumTail(q, enow, qnew);
+            enow = (++eindex < elen) ? e[eindex] : 0.0;
+            q = qnew;
+            if (hh != 0.0) h[hindex++] = hh;
+        }
+        while (findex < flen) {
+            qnew = q + fnow;
+            hh = twoSumTail(q, fnow, qnew);
+            fnow = (++findex < flen) ? f[findex] : 0.0;
+            q = qnew;
+            if (hh != 0.0) h[hindex++] = hh;
+        }
+
+        if (q != 0.0 || hindex == 0) {
+            h[hindex++] = q;
+        }
+        return hindex;
+    }
+}
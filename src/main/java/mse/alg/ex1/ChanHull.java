@@ -0,0 +1,173 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.Orientation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output sensitive convex hull (Chan's algorithm) in O(n log h) time.
+ * <p>
+ * The points are split into groups of size m. The hull of each group (mini hull)
+ * is computed by the monotone chain of {@link ConvexHull2}. Afterwards the
+ * overall hull is wrapped (Jarvis march) around the mini hulls in at most m steps.
+ * If the wrapping doesn't close within m steps, m is squared and the process is repeated.
+ * <p>
+ * The tangent of a mini hull moves counter clockwise while the wrapping point moves
+ * counter clockwise along the overall hull. Therefore each mini hull keeps a pointer
+ * to its current tangent vertex and advances it; one wrapping phase costs O(n).
+ *
+ * @version 1.0
+ */
+class ChanHull {
+    private final ConvexHull2 chain;
+    private final Coordinate[] pts;
+
+    /**
+     * @param chain provides the monotone chain for the mini hulls
+     * @param pts points, gets reordered
+     */
+    ChanHull(ConvexHull2 chain, Coordinate[] pts) {
+        this.chain = chain;
+        this.pts = pts;
+    }
+
+    /**
+     * Computes the hull vertices in counter clockwise order, without collinear vertices
+     * @return open ring of hull vertices, starting at the lowest left most point
+     */
+    Coordinate[] compute() {
+        final int n = pts.length;
+
+        for (int t = 1; ; t++) {
+            // m = min(2^(2^t), n)
+            int m = (t >= 5) ? n : (int)Math.min(1L << (1 << t), n);
+            Coordinate[] hull = wrap(m);
+            if (hull != null) {
+                return hull;
+            }
+        }
+    }
+
+    /**
+     * Wraps the hull around mini hulls of group size m
+     * @param m group size and maximal number of hull vertices
+     * @return hull vertices or null if the hull has more than m vertices
+     */
+    private Coordinate[] wrap(int m) {
+        final int n = pts.length;
+        final int k = (n + m - 1)/m;
+
+        Coordinate[][] miniHulls = new Coordinate[k][];
+        for (int g = 0; g < k; g++) {
+            miniHulls[g] = chain.computeMiniHull(pts, g*m, Math.min(n, (g + 1)*m));
+        }
+
+        // start at the lowest left most point: first vertex of one of the mini hulls
+        Coordinate start = miniHulls[0][0];
+        for (int g = 1; g < k; g++) {
+            if (miniHulls[g][0].compareTo(start) < 0) start = miniHulls[g][0];
+        }
+
+        int[] tangents = new int[k];
+        for (int g = 0; g < k; g++) {
+            tangents[g] = scanTangent(miniHulls[g], start);
+        }
+
+        List<Coordinate> hull = new ArrayList<Coordinate>();
+        Coordinate p = start;
+
+        for (int step = 0; step < m; step++) {
+            hull.add(p);
+
+            Coordinate best = null;
+            for (int g = 0; g < k; g++) {
+                Coordinate[] h = miniHulls[g];
+                int i = tangents[g] = advanceTangent(h, p, tangents[g]);
+                Coordinate q = h[i];
+
+                if (q.equals2D(p)) continue;
+                if (best == null) {
+                    best = q;
+                } else {
+                    int orient = Orientation.index(p, best, q);
+                    if (orient == Orientation.CLOCKWISE
+                            || (orient == Orientation.COLLINEAR && p.distance(q) > p.distance(best))) {
+                        best = q;
+                    }
+                }
+            }
+
+            if (best == null || best.equals2D(start)) {
+                return hull.toArray(new Coordinate[hull.size()]);
+            }
+            p = best;
+        }
+        return null;
+    }
+
+    /**
+     * Moves the tangent pointer of mini hull h counter clockwise until all vertices
+     * of h are left of or on the ray p-h[t]. Falls back to a linear scan if the local
+     * search ends at a wrong vertex.
+     * @param h mini hull
+     * @param p wrapping point
+     * @param t current tangent index
+     * @return new tangent index
+     */
+    private int advanceTangent(Coordinate[] h, Coordinate p, int t) {
+        final int size = h.length;
+        if (size == 1) return 0;
+
+        // p has been reached: continue with its successor
+        if (h[t].equals2D(p)) t = (t + 1) % size;
+
+        for (int i = 0; i < size; i++) {
+            int next = (t + 1) % size;
+            if (!isBetter(p, h[t], h[next])) break;
+            t = next;
+        }
+
+        if (isTangent(h, p, t)) {
+            return t;
+        }
+        return scanTangent(h, p);
+    }
+
+    /**
+     * Checks if no vertex of the convex polygon h is right of the ray p-h[t]
+     */
+    private boolean isTangent(Coordinate[] h, Coordinate p, int t) {
+        final int size = h.length;
+        Coordinate c = h[t];
+        if (c.equals2D(p)) return false;
+        return !isRight(p, c, h[(t + 1) % size]) && !isRight(p, c, h[(t + size - 1) % size]);
+    }
+
+    /**
+     * Linear search of the tangent vertex of h as seen from p
+     */
+    private int scanTangent(Coordinate[] h, Coordinate p) {
+        int t = 0;
+        for (int i = 1; i < h.length; i++) {
+            if (h[t].equals2D(p) || isBetter(p, h[t], h[i])) t = i;
+        }
+        return t;
+    }
+
+    /**
+     * Checks if q is a better wrapping candidate than c as seen from p:
+     * q is right of p-c, or on the same ray but farther away.
+     */
+    private boolean isBetter(Coordinate p, Coordinate c, Coordinate q) {
+        if (q.equals2D(p)) return false;
+        int orient = Orientation.index(p, c, q);
+        return orient == Orientation.CLOCKWISE
+                || (orient == Orientation.COLLINEAR && p.distance(q) > p.distance(c));
+    }
+
+    private boolean isRight(Coordinate p, Coordinate c, Coordinate q) {
+        return !q.equals2D(p) && Orientation.index(p, c, q) == Orientation.CLOCKWISE;
+    }
+}
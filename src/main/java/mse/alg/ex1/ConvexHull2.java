@@ -1,14 +1,15 @@
 package mse.alg.ex1;
 
-import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.util.UniqueCoordinateArrayFilter;
-import mse.alg.DebugUtil;
+import mse.alg.Orientation;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Computes the convex hull of a {@link Geometry}. The convex hull is the
@@ -19,8 +20,31 @@ import java.util.List;
  * @version 1.0
  */
 public class ConvexHull2 {
+    /**
+     * Default minimal number of points per parallel task
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final Comparator<Coordinate> X_ORDER = new Comparator<Coordinate>() {
+        @Override
+        public int compare(Coordinate c1, Coordinate c2) {
+            if(c1.x == c2.x){
+                return Double.compare(c1.y, c2.y);
+            }else {
+                return Double.compare(c1.x, c2.x);
+            }
+        }
+    };
+
     private GeometryFactory geomFactory;
     private Coordinate[] inputPts;
+    private boolean prefilter;
+    private int discardedCount;
+    private boolean parallel;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private boolean outputSensitive;
+    private ConvexHullTracer tracer;
+    private Coordinate[] ring;                  // cached result of computeRing, null if not yet computed
 
     /**
      * Create a new convex hull construction for the input {@link Geometry}.
@@ -38,6 +62,75 @@ public class ConvexHull2 {
         this.geomFactory = geomFactory;
     }
 
+    /**
+     * Enables the Akl-Toussaint prefilter: before sorting, all points strictly inside
+     * the octagon of the extreme points (min/max x, y, x+y, x-y) are discarded.
+     *
+     * @param prefilter true to enable the prefilter (default false)
+     */
+    public void setPrefilter(boolean prefilter) {
+        this.prefilter = prefilter;
+        ring = null;
+    }
+
+    /**
+     * Returns the number of points discarded by the prefilter in the last computation
+     * of the hull.
+     *
+     * @return number of discarded interior points
+     */
+    public int getDiscardedCount() {
+        return discardedCount;
+    }
+
+    /**
+     * Enables the parallel mode: the points are sorted in parallel, split into x-sorted chunks
+     * and the partial hulls of the chunks are computed and merged on the common {@link ForkJoinPool}.
+     * The result is identical to the sequential computation.
+     *
+     * @param parallel true to enable the parallel mode (default false)
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+        ring = null;
+    }
+
+    /**
+     * Sets the number of points below which the parallel mode falls back to sequential work.
+     * It is used both for the whole input and for the size of the chunks.
+     *
+     * @param parallelThreshold minimal number of points per parallel task
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 3) {
+            throw new IllegalArgumentException("threshold too small: " + parallelThreshold);
+        }
+        this.parallelThreshold = parallelThreshold;
+        ring = null;
+    }
+
+    /**
+     * Enables the output sensitive mode (Chan's algorithm) which runs in O(n log h) time,
+     * where h is the number of hull vertices. Useful for many points with few hull vertices.
+     * The resulting hull doesn't contain collinear vertices. The parallel mode is ignored.
+     *
+     * @param outputSensitive true to enable the output sensitive mode (default false)
+     */
+    public void setOutputSensitive(boolean outputSensitive) {
+        this.outputSensitive = outputSensitive;
+        ring = null;
+    }
+
+    /**
+     * Sets a tracer which receives the intermediate steps of the computation.
+     *
+     * @param tracer tracer or null to disable tracing (default)
+     */
+    public void setTracer(ConvexHullTracer tracer) {
+        this.tracer = tracer;
+        ring = null;
+    }
+
     private static Coordinate[] extractCoordinates(Geometry geom) {
         UniqueCoordinateArrayFilter filter = new UniqueCoordinateArrayFilter();
         geom.apply(filter);
@@ -55,43 +148,170 @@ public class ConvexHull2 {
      *         points, an empty {@link GeometryCollection}.
      */
     public Geometry getConvexHull()  {
-        if (inputPts.length == 0) {
+        Coordinate[] ring = getRing();
+
+        if (ring.length == 0) {
             return geomFactory.createGeometryCollection(null);
         }
-        if (inputPts.length == 1) {
-            return geomFactory.createPoint(inputPts[0]);
+        if (ring.length == 1) {
+            return geomFactory.createPoint(ring[0]);
+        }
+        // the linear ring takes over the array
+        return createGeometry(geomFactory, ring.clone());
+    }
+
+    /**
+     * Returns the convex hull of the input geometry as {@link ConvexPolygon} which supports
+     * rotating calipers queries (diameter, width, minimal enclosing rectangles).
+     * The polygon is built directly from the hull chains, without creating a {@link Geometry}.
+     *
+     * @return hull in counter clockwise order without collinear vertices
+     */
+    public ConvexPolygon getHull() {
+        return new ConvexPolygon(geomFactory, getRing());
+    }
+
+    /**
+     * Returns the convex hull of the input geometry as {@link HullSummary}, which can be
+     * serialized and merged with the summaries of other point sets.
+     *
+     * @return summary of the hull vertices
+     */
+    public HullSummary getSummary() {
+        return HullSummary.fromVertices(getRing());
+    }
+
+    /**
+     * Returns the hull, which is computed once: the input doesn't change after the construction,
+     * the setters discard the cached hull.
+     */
+    private Coordinate[] getRing() {
+        if (ring == null) {
+            ring = computeRing();
+        }
+        return ring;
+    }
+
+    /**
+     * Computes the hull
+     * @return closed ring in counter clockwise order or 0, 1, 2 points in the degenerate cases
+     */
+    private Coordinate[] computeRing() {
+        discardedCount = 0;
+        // the input is left unchanged, the points are filtered, sorted and deduplicated in a local array
+        Coordinate[] pts = prefilter ? reduceInteriorPoints(inputPts) : inputPts;
+        if (pts == inputPts) {
+            pts = inputPts.clone();
+        }
+
+        if (pts.length <= 2) {
+            return pts;
         }
-        if (inputPts.length == 2) {
-            return geomFactory.createLineString(inputPts);
+
+        if (outputSensitive) {
+            return createOutputSensitiveHull(pts);
         }
 
+        boolean runParallel = parallel && pts.length >= parallelThreshold;
+
         // Sort coordinates by X
-        sortCoordinatesByX(inputPts);
+        if (runParallel) {
+            Arrays.parallelSort(pts, X_ORDER);
+        } else {
+            sortCoordinatesByX(pts);
+        }
+
+        // the constructor removes consecutive duplicates only, after sorting all duplicates are neighbours
+        pts = removeSortedDuplicates(pts);
+        if (pts.length <= 2) {
+            return pts;
+        }
 
-        System.out.println("Sorted Coordinates by X:");
-        DebugUtil.printAll(inputPts);
+        if (tracer != null) {
+            tracer.sortedInput(pts);
+        }
 
         try {
-            List<Coordinate> upperHull = createUpperHull(inputPts);
-            List<Coordinate> lowerHull = createLowerHull(inputPts);
-            return createGeometry(mergeHulls(upperHull, lowerHull));
+            List<Coordinate> upperHull, lowerHull;
+            if (runParallel) {
+                Chains chains = ForkJoinPool.commonPool().invoke(new HullTask(pts, 0, pts.length));
+                upperHull = chains.upper;
+                lowerHull = chains.lower;
+            } else {
+                upperHull = createUpperHull(pts, 0, pts.length);
+                lowerHull = createLowerHull(pts, 0, pts.length);
+            }
+            return mergeHulls(upperHull, lowerHull);
         }catch (RuntimeException e){
             // Show exception stacktrace to make debugging easier
             e.printStackTrace();
             throw e;
         }
+    }
+
 
+    private Coordinate[] createOutputSensitiveHull(Coordinate[] pts){
+        Coordinate[] hull = new ChanHull(this, pts).compute();
 
+        if (hull.length <= 2) {
+            return hull;
+        }
+        Coordinate[] ring = Arrays.copyOf(hull, hull.length + 1);
+        ring[hull.length] = hull[0];
+        return ring;
     }
 
+    /**
+     * Computes the hull of the points [from, to) with the monotone chain.
+     * The range gets sorted.
+     * @param pts
+     * @param from
+     * @param to
+     * @return hull vertices in counter clockwise order without collinear vertices,
+     *         starting at the lowest left most point
+     */
+    Coordinate[] computeMiniHull(Coordinate[] pts, int from, int to){
+        Arrays.sort(pts, from, to, X_ORDER);
+
+        // remove duplicates
+        List<Coordinate> sorted = new ArrayList<Coordinate>(to - from);
+        for (int i = from; i < to; i++) {
+            if (sorted.isEmpty() || !sorted.get(sorted.size()-1).equals2D(pts[i])) {
+                sorted.add(pts[i]);
+            }
+        }
+        if (sorted.size() <= 2) {
+            return sorted.toArray(new Coordinate[sorted.size()]);
+        }
+
+        Coordinate[] sortedPnts = sorted.toArray(new Coordinate[sorted.size()]);
+        Coordinate[] ring = mergeHulls(createUpperHull(sortedPnts, 0, sortedPnts.length),
+                createLowerHull(sortedPnts, 0, sortedPnts.length));
+        if (ring.length == 2) {
+            return ring;
+        }
 
-    private List<Coordinate> createUpperHull(Coordinate[] sortedPnts){
+        // remove collinear vertices, the closing point is removed at the end
+        List<Coordinate> hull = new ArrayList<Coordinate>(ring.length);
+        for (Coordinate c : ring) {
+            hull.add(c);
+            int j = hull.size() - 1;
+            while (j >= 2 && Orientation.index(hull.get(j-2), hull.get(j-1), c) == Orientation.COLLINEAR) {
+                hull.remove(j-1);
+                j--;
+            }
+        }
+        hull.remove(hull.size()-1);
+        return hull.toArray(new Coordinate[hull.size()]);
+    }
+
+    private List<Coordinate> createUpperHull(Coordinate[] sortedPnts, int from, int to){
         List<Coordinate> upperHull = new ArrayList<Coordinate>();
 
-        upperHull.add( sortedPnts[0] );
-        upperHull.add( sortedPnts[1] );
+        upperHull.add( sortedPnts[from] );
+        upperHull.add( sortedPnts[from+1] );
 
-        for(int i = 2; i < sortedPnts.length; i++){
+        for(int i = from+2; i < to; i++){
             upperHull.add( sortedPnts[i] );
             //System.out.println("Upper Hull Added " +  sortedPnts[i] + " @ " + i);
             reduceConcave(upperHull);
@@ -100,14 +320,14 @@ public class ConvexHull2 {
         return upperHull;
     }
 
-    private List<Coordinate> createLowerHull(Coordinate[] sortedPnts){
+    private List<Coordinate> createLowerHull(Coordinate[] sortedPnts, int from, int to){
         List<Coordinate> lowerHull = new ArrayList<Coordinate>();
-        int n = sortedPnts.length - 1;
+        int n = to - 1;
 
         lowerHull.add( sortedPnts[n] );
         lowerHull.add( sortedPnts[n-1] );
 
-        for(int i = n-2; i >= 0; i--){
+        for(int i = n-2; i >= from; i--){
 
             lowerHull.add( sortedPnts[i] );
             //System.out.println("Lower Hull Added " +  sortedPnts[i] + " @ " + i);
@@ -117,6 +337,20 @@ public class ConvexHull2 {
         return lowerHull;
     }
 
+    /**
+     * Continues a partial hull with the points of the following partial hull.
+     * The stack reduction pops the points of both chains which are not on the common
+     * tangent (bridge) of the two partial hulls.
+     * @param hull partial hull, gets extended
+     * @param next following partial hull in the same direction
+     */
+    private void appendHull(List<Coordinate> hull, List<Coordinate> next){
+        for (Coordinate c : next) {
+            hull.add(c);
+            reduceConcave(hull);
+        }
+    }
+
     /**
      *
      * @param hull
@@ -132,28 +366,34 @@ public class ConvexHull2 {
             // The hull is currently concave which is bad
             // We remove the second last point.
 
-            //System.out.println("Reducing hull since it is concave { " + hull.get(j-2) + ", " + hull.get(j-1) + ", " + hull.get(j) + " }");
-            hull.remove(j-1);
+            Coordinate removed = hull.remove(j-1);
+            if (tracer != null) {
+                tracer.reduced(removed);
+            }
             j = hull.size() - 1;
         }
     }
 
 
     /**
-     * Checks if the point p3 is on the left side of line p1-p2. (counter clock)
+     * Checks if p2 has to be removed from the chain p1-p2-p3: p3 is on the wrong side of
+     * line p1-p2 or the three points are collinear (p2 is no hull vertex then).
      * @param p1
      * @param p2
      * @param p3
      * @return
      */
     private boolean isLeftTurn(Coordinate p1, Coordinate p2, Coordinate p3){
-        int or = CGAlgorithms.computeOrientation(p1, p2, p3);
+        int or = Orientation.index(p1, p2, p3);
         //System.out.println("Orientation " + p1 + " " + p2 + " " + p3 + " = " + or);
-        return or == -1;
+        return or != Orientation.COUNTERCLOCKWISE;
     }
 
 
     private Coordinate[] mergeHulls(List<Coordinate> upperHull, List<Coordinate> lowerHull){
+        if (tracer != null) {
+            tracer.merge(upperHull, lowerHull);
+        }
 
         //Check if both Hulls are the same --> Line with multiple points
         if(upperHull.size() == lowerHull.size()){
@@ -181,7 +421,7 @@ public class ConvexHull2 {
         return true;
     }
 
-    private Geometry createGeometry(Coordinate[] hull){
+    static Geometry createGeometry(GeometryFactory geomFactory, Coordinate[] hull){
         if (hull.length == 2) {
             return geomFactory.createLineString(new Coordinate[] { hull[0], hull[1] });
         }
@@ -192,21 +432,152 @@ public class ConvexHull2 {
         return geomFactory.createPolygon(linearRing, null);
     }
 
+    /**
+     * Akl-Toussaint heuristic: removes all points strictly inside the octagon
+     * of the extreme points. These points can't be part of the hull.
+     * @param pts
+     * @return remaining points
+     */
+    private Coordinate[] reduceInteriorPoints(Coordinate[] pts){
+        Coordinate[] octagon = computeOctagon(pts);
+
+        // less than 3 distinct vertices: no interior
+        if (octagon.length < 3) {
+            return pts;
+        }
+
+        Coordinate[] reduced = new Coordinate[pts.length];
+        int k = 0;
+        for (Coordinate p : pts) {
+            if (!isStrictlyInside(octagon, p)) {
+                reduced[k++] = p;
+            }
+        }
+        discardedCount = pts.length - k;
+        return Arrays.copyOf(reduced, k);
+    }
+
+    /**
+     * Computes the extreme points in counter clockwise order:
+     * min y, max x-y, max x, max x+y, max y, min x-y, min x, min x+y.
+     * Consecutive equal vertices are removed.
+     * @param pts
+     * @return open ring of octagon vertices
+     */
+    private Coordinate[] computeOctagon(Coordinate[] pts){
+        Coordinate[] ext = new Coordinate[8];
+        Arrays.fill(ext, pts[0]);
+
+        for (Coordinate p : pts) {
+            if (p.y < ext[0].y) ext[0] = p;
+            if (p.x - p.y > ext[1].x - ext[1].y) ext[1] = p;
+            if (p.x > ext[2].x) ext[2] = p;
+            if (p.x + p.y > ext[3].x + ext[3].y) ext[3] = p;
+            if (p.y > ext[4].y) ext[4] = p;
+            if (p.x - p.y < ext[5].x - ext[5].y) ext[5] = p;
+            if (p.x < ext[6].x) ext[6] = p;
+            if (p.x + p.y < ext[7].x + ext[7].y) ext[7] = p;
+        }
+
+        List<Coordinate> octagon = new ArrayList<Coordinate>(8);
+        for (Coordinate p : ext) {
+            if (octagon.isEmpty() || !octagon.get(octagon.size()-1).equals2D(p)) {
+                octagon.add(p);
+            }
+        }
+        while (octagon.size() > 1 && octagon.get(0).equals2D(octagon.get(octagon.size()-1))) {
+            octagon.remove(octagon.size()-1);
+        }
+        return octagon.toArray(new Coordinate[octagon.size()]);
+    }
+
+    /**
+     * Checks if p is strictly left of all edges of the counter clockwise convex polygon
+     * @param polygon open ring
+     * @param p
+     * @return true if p is in the interior of the polygon
+     */
+    private boolean isStrictlyInside(Coordinate[] polygon, Coordinate p){
+        Coordinate prev = polygon[polygon.length - 1];
+        for (Coordinate c : polygon) {
+            if (Orientation.index(prev, c, p) != Orientation.COUNTERCLOCKWISE) {
+                return false;
+            }
+            prev = c;
+        }
+        return true;
+    }
+
+    /**
+     * Removes duplicates from x-sorted points
+     * @param sortedPts
+     * @return sortedPts or a shorter copy
+     */
+    private static Coordinate[] removeSortedDuplicates(Coordinate[] sortedPts){
+        int k = 1;
+        for (int i = 1; i < sortedPts.length; i++) {
+            if (!sortedPts[i].equals2D(sortedPts[k-1])) {
+                sortedPts[k++] = sortedPts[i];
+            }
+        }
+        return (k == sortedPts.length) ? sortedPts : Arrays.copyOf(sortedPts, k);
+    }
+
     /**
      * Sort the coordinates by x
      * @param inputPts
      */
     private void sortCoordinatesByX(Coordinate[] inputPts){
-        Arrays.sort(inputPts, new Comparator<Coordinate>() {
-            @Override
-            public int compare(Coordinate c1, Coordinate c2) {
-                if(c1.x == c2.x){
-                    return Double.compare(c1.y, c2.y);
-                }else {
-                    return Double.compare(c1.x, c2.x);
-                }
+        Arrays.sort(inputPts, X_ORDER);
+    }
+
+    /**
+     * Upper and lower chain of a partial hull
+     */
+    private static class Chains {
+        final List<Coordinate> upper;
+        final List<Coordinate> lower;
+
+        Chains(List<Coordinate> upper, List<Coordinate> lower) {
+            this.upper = upper;
+            this.lower = lower;
+        }
+    }
+
+    /**
+     * Divide and conquer task: computes the chains of the x-sorted points [from, to)
+     */
+    private class HullTask extends RecursiveTask<Chains> {
+        private static final long serialVersionUID = 1L;
+
+        private final Coordinate[] sortedPnts;
+        private final int from, to;
+
+        HullTask(Coordinate[] sortedPnts, int from, int to) {
+            this.sortedPnts = sortedPnts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chains compute() {
+            if (to - from < 2*parallelThreshold) {
+                // Simple case - Conquer it!
+                return new Chains(createUpperHull(sortedPnts, from, to), createLowerHull(sortedPnts, from, to));
             }
-        });
+
+            int middle = (from + to) >>> 1;
+            HullTask left = new HullTask(sortedPnts, from, middle);
+            HullTask right = new HullTask(sortedPnts, middle, to);
+            left.fork();
+            Chains r = right.compute();
+            Chains l = left.join();
+
+            // upper chains run from left to right, lower chains from right to left
+            appendHull(l.upper, r.upper);
+            appendHull(r.lower, l.lower);
+            return new Chains(l.upper, r.lower);
+        }
     }
 
 
@@ -0,0 +1,107 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the convex hulls of many geometries in one call.
+ * <p>
+ * Uses the monotone chain of {@link PackedConvexHull}. The coordinates of each geometry
+ * are collected into primitive scratch buffers which are reused for all geometries
+ * (one set of buffers per worker thread), so only the resulting hulls are allocated.
+ *
+ * @version 1.0
+ */
+public class ConvexHullBatch {
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+    private boolean parallel;
+
+    /**
+     * Enables the parallel mode: the geometries are distributed on the common fork join pool.
+     *
+     * @param parallel true to enable the parallel mode (default false)
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Computes the convex hulls of all geometries of a collection.
+     * Each hull is created by the factory of its geometry.
+     *
+     * @param geometries collection of geometries
+     * @return hulls in the order of the collection
+     */
+    public List<Geometry> getConvexHulls(GeometryCollection geometries) {
+        List<Geometry> list = new ArrayList<Geometry>(geometries.getNumGeometries());
+        for (int i = 0; i < geometries.getNumGeometries(); i++) {
+            list.add(geometries.getGeometryN(i));
+        }
+        return getConvexHulls(list.iterator());
+    }
+
+    /**
+     * Computes the convex hulls of all geometries of an iterator.
+     * Each hull is created by the factory of its geometry.
+     *
+     * @param geometries geometries
+     * @return hulls in the order of the iterator
+     */
+    public List<Geometry> getConvexHulls(Iterator<? extends Geometry> geometries) {
+        if (!parallel) {
+            Workspace ws = workspaces.get();
+            List<Geometry> hulls = new ArrayList<Geometry>();
+            while (geometries.hasNext()) {
+                hulls.add(ws.getConvexHull(geometries.next()));
+            }
+            return hulls;
+        }
+
+        List<Geometry> input = new ArrayList<Geometry>();
+        geometries.forEachRemaining(input::add);
+
+        Geometry[] hulls = new Geometry[input.size()];
+        IntStream.range(0, hulls.length).parallel().forEach(i ->
+            hulls[i] = workspaces.get().getConvexHull(input.get(i))
+        );
+        return Arrays.asList(hulls);
+    }
+
+    /**
+     * Scratch buffers of one thread
+     */
+    private static class Workspace implements CoordinateFilter {
+        private double[] xs = new double[64];
+        private double[] ys = new double[64];
+        private int[] order = new int[64];
+        private int[] hull = new int[128];
+        private int n;
+
+        Geometry getConvexHull(Geometry geometry) {
+            n = 0;
+            geometry.apply(this);
+
+            if (order.length < n) {
+                order = new int[xs.length];
+                hull = new int[2*xs.length];
+            }
+            return PackedConvexHull.createHull(geometry.getFactory(), xs, ys, n, order, hull);
+        }
+
+        @Override
+        public void filter(Coordinate coord) {
+            if (n == xs.length) {
+                xs = Arrays.copyOf(xs, 2*n);
+                ys = Arrays.copyOf(ys, 2*n);
+            }
+            xs[n] = coord.x;
+            ys[n] = coord.y;
+            n++;
+        }
+    }
+}
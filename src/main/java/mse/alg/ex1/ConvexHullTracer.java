@@ -0,0 +1,35 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.util.List;
+
+/**
+ * Receives the intermediate steps of a {@link ConvexHull2} computation for diagnostics.
+ * <p>
+ * Tracing is disabled unless a tracer is set, so there are no costs in production.
+ * In parallel mode the methods may be called from worker threads.
+ *
+ * @version 1.0
+ */
+public interface ConvexHullTracer {
+
+    /**
+     * Called after the input points have been sorted by x.
+     * @param sortedPts sorted points, must not be modified
+     */
+    default void sortedInput(Coordinate[] sortedPts) {}
+
+    /**
+     * Called when a concave point is removed from a partial hull.
+     * @param removed removed point
+     */
+    default void reduced(Coordinate removed) {}
+
+    /**
+     * Called before the two chains are merged into the hull.
+     * @param upperHull upper chain, must not be modified
+     * @param lowerHull lower chain, must not be modified
+     */
+    default void merge(List<Coordinate> upperHull, List<Coordinate> lowerHull) {}
+}
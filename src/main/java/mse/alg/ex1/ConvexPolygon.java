@@ -0,0 +1,282 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+import mse.alg.Orientation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Convex hull as returned by {@link ConvexHull2#getHull()} with rotating calipers queries
+ * (Shamos; Toussaint: "Solving geometric problems with the rotating calipers").
+ * <p>
+ * The vertices are kept in counter clockwise order without collinear vertices. Each query
+ * walks around the polygon once with up to three caliper pointers and runs in O(h) time.
+ * <p>
+ * Immutable.
+ *
+ * @version 1.0
+ */
+public class ConvexPolygon {
+    private final GeometryFactory geomFactory;
+    private final Coordinate[] vertices;
+
+    /**
+     * @param geomFactory factory of the resulting geometries
+     * @param ring hull vertices in counter clockwise order, closed or open;
+     *             duplicate and collinear vertices are removed
+     */
+    ConvexPolygon(GeometryFactory geomFactory, Coordinate[] ring) {
+        this.geomFactory = geomFactory;
+        this.vertices = removeCollinear(ring);
+    }
+
+    private static Coordinate[] removeCollinear(Coordinate[] ring) {
+        List<Coordinate> hull = new ArrayList<Coordinate>(ring.length);
+        for (Coordinate c : ring) {
+            if (!hull.isEmpty() && hull.get(hull.size()-1).equals2D(c)) continue;
+            hull.add(c);
+            int j = hull.size() - 1;
+            while (j >= 2 && Orientation.index(hull.get(j-2), hull.get(j-1), c) == Orientation.COLLINEAR) {
+                hull.remove(j-1);
+                j--;
+            }
+        }
+        if (hull.size() > 1 && hull.get(0).equals2D(hull.get(hull.size()-1))) {
+            hull.remove(hull.size()-1);
+        }
+
+        // collinear vertices at the start of the ring
+        while (hull.size() > 2 && Orientation.index(hull.get(hull.size()-1), hull.get(0), hull.get(1)) == Orientation.COLLINEAR) {
+            hull.remove(0);
+        }
+        while (hull.size() > 2 && Orientation.index(hull.get(hull.size()-2), hull.get(hull.size()-1), hull.get(0)) == Orientation.COLLINEAR) {
+            hull.remove(hull.size()-1);
+        }
+        return hull.toArray(new Coordinate[hull.size()]);
+    }
+
+    /**
+     * Returns the number of hull vertices
+     */
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the hull vertices in counter clockwise order (open ring)
+     */
+    public Coordinate[] getVertices() {
+        return vertices.clone();
+    }
+
+    /**
+     * Returns the hull as {@link Geometry}: a {@link Polygon} without collinear vertices;
+     * a {@link LineString}, {@link Point} or an empty {@link GeometryCollection} in the degenerate cases.
+     */
+    public Geometry toGeometry() {
+        return createGeometry(vertices);
+    }
+
+    /**
+     * Returns all antipodal vertex pairs: pairs of vertices admitting parallel supporting lines.
+     * There are at most 3h/2 pairs; a pair is reported once.
+     *
+     * @return pairs { p, q }
+     */
+    public List<Coordinate[]> getAntipodalPairs() {
+        final int h = vertices.length;
+        List<Coordinate[]> pairs = new ArrayList<Coordinate[]>();
+        if (h == 2) {
+            pairs.add(new Coordinate[] { vertices[0], vertices[1] });
+        }
+        if (h < 3) return pairs;
+
+        // the vertex farthest from edge i is antipodal to both end points of the edge;
+        // rotating a pair of parallel supporting lines always reaches such a position
+        Set<Long> found = new HashSet<Long>();
+        int j = farthestFromEdge(0, 1);
+        for (int i = 0; i < h; i++) {
+            int ni = next(i);
+            j = farthestFromEdge(i, j);
+            addPair(pairs, found, i, j);
+            addPair(pairs, found, ni, j);
+
+            // parallel edge: its second vertex is antipodal as well
+            if (area2(i, ni, next(j)) == area2(i, ni, j)) {
+                addPair(pairs, found, i, next(j));
+                addPair(pairs, found, ni, next(j));
+            }
+        }
+        return pairs;
+    }
+
+    private void addPair(List<Coordinate[]> pairs, Set<Long> found, int a, int b) {
+        long key = (long)Math.min(a, b)*vertices.length + Math.max(a, b);
+        if (found.add(key)) {
+            pairs.add(new Coordinate[] { vertices[a], vertices[b] });
+        }
+    }
+
+    /**
+     * Returns the largest distance of two hull vertices (diameter)
+     */
+    public double getDiameter() {
+        Coordinate[] pair = getFarthestPair();
+        return (pair == null) ? 0 : pair[0].distance(pair[1]);
+    }
+
+    /**
+     * Returns two hull vertices with the largest distance
+     *
+     * @return { p, q } or null if the hull is empty
+     */
+    public Coordinate[] getFarthestPair() {
+        final int h = vertices.length;
+        if (h == 0) return null;
+        if (h == 1) return new Coordinate[] { vertices[0], vertices[0] };
+
+        Coordinate[] best = null;
+        double bestDist = -1;
+        for (Coordinate[] pair : getAntipodalPairs()) {
+            double d = pair[0].distance(pair[1]);
+            if (d > bestDist) {
+                bestDist = d;
+                best = pair;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the minimal distance of two parallel lines enclosing the hull (width).
+     * The minimum is attained at a line through a hull edge.
+     */
+    public double getWidth() {
+        final int h = vertices.length;
+        if (h < 3) return 0;
+
+        double width = Double.POSITIVE_INFINITY;
+        int j = farthestFromEdge(0, 1);
+        for (int i = 0; i < h; i++) {
+            int ni = next(i);
+            j = farthestFromEdge(i, j);
+            width = Math.min(width, area2(i, ni, j)/vertices[i].distance(vertices[ni]));
+        }
+        return width;
+    }
+
+    /**
+     * Returns the oriented rectangle of minimal area enclosing the hull.
+     * One of its sides contains a hull edge (Freeman, Shapira).
+     *
+     * @return a {@link Polygon}; a {@link LineString}, {@link Point} or an empty
+     *         {@link GeometryCollection} if the hull is degenerated.
+     */
+    public Geometry getMinimumAreaRectangle() {
+        return createRectangle(false);
+    }
+
+    /**
+     * Returns the oriented rectangle of minimal perimeter enclosing the hull.
+     * One of its sides contains a hull edge.
+     *
+     * @return a {@link Polygon}; a {@link LineString}, {@link Point} or an empty
+     *         {@link GeometryCollection} if the hull is degenerated.
+     */
+    public Geometry getMinimumPerimeterRectangle() {
+        return createRectangle(true);
+    }
+
+    /**
+     * Rotates four calipers around the hull: edge i is on the bottom side, the
+     * right, top and left sides touch the vertices r, t and l.
+     * @param perimeter minimize the perimeter instead of the area
+     */
+    private Geometry createRectangle(boolean perimeter) {
+        final int h = vertices.length;
+        if (h < 3) return createGeometry(vertices);
+
+        int r = 1, t = 1, l = 1;
+        double best = Double.POSITIVE_INFINITY;
+        Coordinate[] rect = null;
+
+        for (int i = 0; i < h; i++) {
+            Coordinate p = vertices[i];
+            Coordinate q = vertices[next(i)];
+            double len = p.distance(q);
+            double ux = (q.x - p.x)/len, uy = (q.y - p.y)/len;    // edge direction
+            double nx = -uy, ny = ux;                              // inner normal
+
+            while (dot(next(r), ux, uy, p) > dot(r, ux, uy, p)) r = next(r);
+            if (i == 0) t = r;
+            while (dot(next(t), nx, ny, p) > dot(t, nx, ny, p)) t = next(t);
+            if (i == 0) l = t;
+            while (dot(next(l), ux, uy, p) < dot(l, ux, uy, p)) l = next(l);
+
+            double left = dot(l, ux, uy, p);
+            double right = dot(r, ux, uy, p);
+            double top = dot(t, nx, ny, p);
+            double value = perimeter ? 2*((right - left) + top) : (right - left)*top;
+            if (value < best) {
+                best = value;
+                rect = new Coordinate[] {
+                        new Coordinate(p.x + left*ux, p.y + left*uy),
+                        new Coordinate(p.x + right*ux, p.y + right*uy),
+                        new Coordinate(p.x + right*ux + top*nx, p.y + right*uy + top*ny),
+                        new Coordinate(p.x + left*ux + top*nx, p.y + left*uy + top*ny),
+                        null };
+                rect[4] = new Coordinate(rect[0]);
+            }
+        }
+        return geomFactory.createPolygon(geomFactory.createLinearRing(rect), null);
+    }
+
+    /**
+     * Advances the caliper j to the vertex farthest from the line through edge i
+     */
+    private int farthestFromEdge(int i, int j) {
+        int ni = next(i);
+        while (area2(i, ni, next(j)) > area2(i, ni, j)) {
+            j = next(j);
+        }
+        return j;
+    }
+
+    /**
+     * Twice the area of the triangle (a, b, c): distance of c from the line a-b times |ab|
+     */
+    private double area2(int a, int b, int c) {
+        Coordinate pa = vertices[a], pb = vertices[b], pc = vertices[c];
+        return (pb.x - pa.x)*(pc.y - pa.y) - (pb.y - pa.y)*(pc.x - pa.x);
+    }
+
+    /**
+     * Projection of vertex i - origin on the direction (dx, dy)
+     */
+    private double dot(int i, double dx, double dy, Coordinate origin) {
+        return (vertices[i].x - origin.x)*dx + (vertices[i].y - origin.y)*dy;
+    }
+
+    private int next(int i) {
+        return (i + 1 == vertices.length) ? 0 : i + 1;
+    }
+
+    private Geometry createGeometry(Coordinate[] pts) {
+        if (pts.length == 0) {
+            return geomFactory.createGeometryCollection(null);
+        }
+        if (pts.length == 1) {
+            return geomFactory.createPoint(pts[0]);
+        }
+        if (pts.length == 2) {
+            return geomFactory.createLineString(pts);
+        }
+        Coordinate[] ring = Arrays.copyOf(pts, pts.length + 1);
+        ring[pts.length] = pts[0];
+        return geomFactory.createPolygon(geomFactory.createLinearRing(ring), null);
+    }
+}
@@ -0,0 +1,151 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+import mse.alg.Orientation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Convex hull of a growing point set. Points are inserted one by one in
+ * amortized O(log n) time and the current hull is available at any time in O(h).
+ * <p>
+ * The lower and the upper chain are kept in balanced search trees ordered by x.
+ * A new point is inserted into a chain if it is below (above) the chain. Afterwards
+ * its neighbors are removed as long as they are no longer convex. Every point is
+ * inserted and removed at most once per chain. Collinear points are not kept.
+ * <p>
+ * Not thread safe. The inserted coordinates are referenced, not copied.
+ *
+ * @version 1.0
+ */
+public class DynamicConvexHull {
+    private static final int LOWER = 1;
+    private static final int UPPER = -1;
+
+    private final GeometryFactory geomFactory;
+    private final TreeMap<Double, Coordinate> lowerChain = new TreeMap<Double, Coordinate>();    // lowest point per x
+    private final TreeMap<Double, Coordinate> upperChain = new TreeMap<Double, Coordinate>();    // highest point per x
+
+    /**
+     * Create a new empty hull
+     */
+    public DynamicConvexHull(GeometryFactory geomFactory) {
+        this.geomFactory = geomFactory;
+    }
+
+    /**
+     * Adds a point to the hull in amortized O(log n) time
+     * @param p point
+     */
+    public void add(Coordinate p) {
+        insert(lowerChain, p, LOWER);
+        insert(upperChain, p, UPPER);
+    }
+
+    /**
+     * Adds all coordinates of a geometry
+     * @param geometry
+     */
+    public void add(Geometry geometry) {
+        geometry.apply(new CoordinateFilter() {
+            @Override
+            public void filter(Coordinate coord) {
+                add(coord);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of hull vertices
+     */
+    public int getVertexCount() {
+        return snapshotCoordinates().size();
+    }
+
+    /**
+     * Returns a {@link Geometry} that represents the convex hull of all points added so far.
+     * Same contract as {@link ConvexHull2#getConvexHull()}; runs in O(h) time.
+     *
+     * @return if the convex hull contains 3 or more points, a {@link Polygon};
+     *         2 points, a {@link LineString}; 1 point, a {@link Point}; 0
+     *         points, an empty {@link GeometryCollection}.
+     */
+    public Geometry snapshot() {
+        List<Coordinate> hull = snapshotCoordinates();
+
+        if (hull.isEmpty()) {
+            return geomFactory.createGeometryCollection(null);
+        }
+        if (hull.size() == 1) {
+            return geomFactory.createPoint(hull.get(0));
+        }
+        hull.add(hull.get(0));
+        return ConvexHull2.createGeometry(geomFactory, hull.toArray(new Coordinate[hull.size()]));
+    }
+
+    /**
+     * Lower chain from left to right followed by upper chain from right to left (counter clockwise)
+     * @return open ring
+     */
+    private List<Coordinate> snapshotCoordinates() {
+        List<Coordinate> hull = new ArrayList<Coordinate>(lowerChain.size() + upperChain.size());
+
+        hull.addAll(lowerChain.values());
+        for (Coordinate c : upperChain.descendingMap().values()) {
+            if (!c.equals2D(hull.get(hull.size()-1))) {
+                hull.add(c);
+            }
+        }
+        if (hull.size() > 1 && hull.get(0).equals2D(hull.get(hull.size()-1))) {
+            hull.remove(hull.size()-1);
+        }
+        return hull;
+    }
+
+    /**
+     * Inserts p into a chain and removes the neighbors which are no longer convex
+     * @param chain lower or upper chain
+     * @param p new point
+     * @param side LOWER or UPPER
+     */
+    private void insert(TreeMap<Double, Coordinate> chain, Coordinate p, int side) {
+        Double x = p.x + 0.0;    // -0.0 and 0.0 are the same key
+        Coordinate existing = chain.get(x);
+
+        if (existing != null) {
+            // one point per x: keep the lower (upper) one
+            if (side*(p.y - existing.y) >= 0) return;
+        } else {
+            // p is above (below) the chain
+            Map.Entry<Double, Coordinate> lo = chain.lowerEntry(x);
+            Map.Entry<Double, Coordinate> hi = chain.higherEntry(x);
+            if (lo != null && hi != null && side*orientation(lo.getValue(), hi.getValue(), p) >= 0) return;
+        }
+        chain.put(x, p);
+
+        // remove left neighbors
+        Map.Entry<Double, Coordinate> a = chain.lowerEntry(x);
+        while (a != null) {
+            Map.Entry<Double, Coordinate> b = chain.lowerEntry(a.getKey());
+            if (b == null || side*orientation(b.getValue(), a.getValue(), p) > 0) break;
+            chain.remove(a.getKey());
+            a = b;
+        }
+
+        // remove right neighbors
+        a = chain.higherEntry(x);
+        while (a != null) {
+            Map.Entry<Double, Coordinate> b = chain.higherEntry(a.getKey());
+            if (b == null || side*orientation(p, a.getValue(), b.getValue()) > 0) break;
+            chain.remove(a.getKey());
+            a = b;
+        }
+    }
+
+    private static int orientation(Coordinate p1, Coordinate p2, Coordinate q) {
+        return Orientation.index(p1, p2, q);
+    }
+}
@@ -0,0 +1,246 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+import mse.alg.Orientation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact, immutable summary of a convex hull which can be merged with other summaries.
+ * <p>
+ * The summary keeps only the hull vertices in counter clockwise order, starting at the
+ * lowest left most vertex. {@link #merge(HullSummary, HullSummary)} returns the summary
+ * of the hull of the union in O(hA + hB) time, it is associative and commutative and
+ * {@link #empty()} is its identity. Partitions of a point set can be hulled independently
+ * and combined in any order without shipping the points.
+ * <p>
+ * Binary encoding ({@link #write(DataOutput)}): int magic, int vertex count, then x and y of
+ * every vertex as doubles.
+ *
+ * @version 1.0
+ */
+public final class HullSummary {
+    private static final int MAGIC = 0x48554c4c;    // "HULL"
+    private static final HullSummary EMPTY = new HullSummary(new double[0], new double[0]);
+
+    private final double[] xs;
+    private final double[] ys;
+
+    private HullSummary(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Returns the summary of an empty point set
+     */
+    public static HullSummary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates the summary of arbitrary points in O(n log n) time
+     */
+    public static HullSummary of(Coordinate[] pts) {
+        return new ConvexHull2(pts.clone(), new GeometryFactory()).getSummary();
+    }
+
+    /**
+     * Creates the summary of the vertices of a hull, e.g. {@link ConvexHull2}'s ring.
+     * The order of the vertices doesn't matter, duplicates and collinear vertices are removed.
+     */
+    static HullSummary fromVertices(Coordinate[] vertices) {
+        Coordinate[] sorted = vertices.clone();
+        Arrays.sort(sorted);
+        double[] sxs = new double[sorted.length], sys = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sxs[i] = sorted[i].x;
+            sys[i] = sorted[i].y;
+        }
+        return fromSorted(sxs, sys, sorted.length);
+    }
+
+    /**
+     * Merges two summaries into the summary of the hull of the union in O(hA + hB) time
+     */
+    public static HullSummary merge(HullSummary a, HullSummary b) {
+        if (a.xs.length == 0) return b;
+        if (b.xs.length == 0) return a;
+
+        int na = a.xs.length, nb = b.xs.length;
+        double[] axs = new double[na], ays = new double[na];
+        double[] bxs = new double[nb], bys = new double[nb];
+        a.sortedVertices(axs, ays);
+        b.sortedVertices(bxs, bys);
+
+        double[] sxs = new double[na + nb], sys = new double[na + nb];
+        int i = 0, j = 0, k = 0;
+        while (i < na || j < nb) {
+            if (j == nb || (i < na && less(axs[i], ays[i], bxs[j], bys[j]))) {
+                sxs[k] = axs[i]; sys[k++] = ays[i++];
+            } else {
+                sxs[k] = bxs[j]; sys[k++] = bys[j++];
+            }
+        }
+        return fromSorted(sxs, sys, k);
+    }
+
+    /**
+     * Returns the number of hull vertices: 0, 1, 2 for degenerate hulls
+     */
+    public int getVertexCount() {
+        return xs.length;
+    }
+
+    /**
+     * Returns the hull vertices in counter clockwise order (open ring)
+     */
+    public Coordinate[] getVertices() {
+        Coordinate[] vertices = new Coordinate[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            vertices[i] = new Coordinate(xs[i], ys[i]);
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the hull as {@link Geometry}, same types as {@link ConvexHull2#getConvexHull()}
+     */
+    public Geometry toGeometry(GeometryFactory geomFactory) {
+        Coordinate[] vertices = getVertices();
+        if (vertices.length == 0) {
+            return geomFactory.createGeometryCollection(null);
+        }
+        if (vertices.length == 1) {
+            return geomFactory.createPoint(vertices[0]);
+        }
+        if (vertices.length == 2) {
+            return geomFactory.createLineString(vertices);
+        }
+        Coordinate[] ring = Arrays.copyOf(vertices, vertices.length + 1);
+        ring[vertices.length] = ring[0];
+        return ConvexHull2.createGeometry(geomFactory, ring);
+    }
+
+    /**
+     * Writes the binary encoding
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            out.writeDouble(xs[i]);
+            out.writeDouble(ys[i]);
+        }
+    }
+
+    /**
+     * Reads the binary encoding written by {@link #write(DataOutput)}
+     * @throws IOException if the input isn't a hull summary
+     */
+    public static HullSummary read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a hull summary");
+        }
+        int n = in.readInt();
+        if (n < 0) {
+            throw new IOException("invalid vertex count: " + n);
+        }
+        if (n == 0) {
+            return EMPTY;
+        }
+
+        Coordinate[] vertices = new Coordinate[n];
+        for (int i = 0; i < n; i++) {
+            vertices[i] = new Coordinate(in.readDouble(), in.readDouble());
+        }
+        // rebuilds the canonical form: a corrupt or foreign vertex order can't break merge
+        return fromVertices(vertices);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HullSummary)) return false;
+        HullSummary s = (HullSummary)o;
+        return Arrays.equals(xs, s.xs) && Arrays.equals(ys, s.ys);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31*Arrays.hashCode(xs) + Arrays.hashCode(ys);
+    }
+
+    @Override
+    public String toString() {
+        return "HullSummary" + Arrays.toString(getVertices());
+    }
+
+    /**
+     * Writes the vertices in lexicographic (x, y) order: merges the lower chain
+     * (forward from the first vertex) and the upper chain (backward from the end)
+     */
+    private void sortedVertices(double[] sxs, double[] sys) {
+        int n = xs.length;
+        int max = 0;
+        for (int i = 1; i < n; i++) {
+            if (less(xs[max], ys[max], xs[i], ys[i])) max = i;
+        }
+
+        int lo = 0, up = n - 1, k = 0;
+        while (lo <= max || up > max) {
+            if (up == max || (lo <= max && less(xs[lo], ys[lo], xs[up], ys[up]))) {
+                sxs[k] = xs[lo]; sys[k++] = ys[lo++];
+            } else {
+                sxs[k] = xs[up]; sys[k++] = ys[up--];
+            }
+        }
+    }
+
+    /**
+     * Monotone chain on lexicographically sorted points in O(n) time
+     */
+    private static HullSummary fromSorted(double[] sxs, double[] sys, int n) {
+        // remove duplicates
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m == 0 || sxs[i] != sxs[m-1] || sys[i] != sys[m-1]) {
+                sxs[m] = sxs[i]; sys[m++] = sys[i];
+            }
+        }
+        if (m <= 2) {
+            return (m == 0) ? EMPTY : new HullSummary(Arrays.copyOf(sxs, m), Arrays.copyOf(sys, m));
+        }
+
+        // lower chain from left to right, then upper chain from right to left
+        int[] hull = new int[2*m];
+        int k = 0;
+        for (int i = 0; i < m; i++) {
+            while (k >= 2 && !isLeftTurn(sxs, sys, hull[k-2], hull[k-1], i)) k--;
+            hull[k++] = i;
+        }
+        for (int i = m - 2, lower = k + 1; i >= 0; i--) {
+            while (k >= lower && !isLeftTurn(sxs, sys, hull[k-2], hull[k-1], i)) k--;
+            hull[k++] = i;
+        }
+        k--;    // closing point, collinear points end up as the two end points
+
+        double[] hxs = new double[k], hys = new double[k];
+        for (int i = 0; i < k; i++) {
+            hxs[i] = sxs[hull[i]];
+            hys[i] = sys[hull[i]];
+        }
+        return new HullSummary(hxs, hys);
+    }
+
+    private static boolean isLeftTurn(double[] xs, double[] ys, int a, int b, int c) {
+        return Orientation.index(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) == Orientation.COUNTERCLOCKWISE;
+    }
+
+    private static boolean less(double x1, double y1, double x2, double y2) {
+        return x1 < x2 || (x1 == x2 && y1 < y2);
+    }
+}
@@ -0,0 +1,279 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Approximate convex hull of a binary point file which is too large for the heap
+ * (Bentley, Faust, Preparata: "Approximation algorithms for convex hulls").
+ * <p>
+ * The file contains packed pairs of doubles { x0, y0, x1, y1, ... } and is memory mapped
+ * and read in one pass. The x range is divided into B buckets of equal width; each bucket
+ * keeps only its lowest and its highest point, and the left most and right most points are
+ * kept as well. The final hull is computed from these at most 2B + 4 candidates by
+ * {@link PackedConvexHull}. The heap usage depends on B only, not on the size of the file.
+ * <p>
+ * The x range is not known in advance: if a point falls outside the current range, the range
+ * is doubled (repeatedly) and neighboring buckets are merged, which gives exactly the buckets
+ * as if the larger range had been used from the beginning.
+ * <p>
+ * Every vertex of the result is an input point, so the result is contained in the exact hull.
+ * An input point outside the result is at most one bucket width away from it
+ * (see {@link #getMaxError()}); the final bucket width is about 2 (xmax - xmin) / B at most.
+ *
+ * @version 1.0
+ */
+public class MappedConvexHull {
+    /**
+     * Default number of x buckets
+     */
+    public static final int DEFAULT_BUCKET_COUNT = 1 << 12;
+
+    private static final long CHUNK_BYTES = 1L << 28;     // mapped at once, multiple of 16
+    private static final int BATCH_DOUBLES = 1 << 12;     // copied from the mapped buffer at once
+    private static final int MAX_SHIFT = 40;              // larger range growths merge all buckets into one
+
+    private final Path file;
+    private final GeometryFactory geomFactory;
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+    private int bucketCount = DEFAULT_BUCKET_COUNT;
+
+    // buckets: [lo + i*width, lo + (i+1)*width)
+    private double lo, width;
+    private double[] minX, minY, maxX, maxY;            // lowest and highest point per bucket, minY = +inf if empty
+    private double leftX, leftMinY, leftMaxY;           // left most points
+    private double rightX, rightMinY, rightMaxY;        // right most points
+    private long pointCount;
+
+    /**
+     * Create a new convex hull construction for a binary point file.
+     * @param file packed pairs of doubles
+     */
+    public MappedConvexHull(Path file, GeometryFactory geomFactory) {
+        this.file = file;
+        this.geomFactory = geomFactory;
+    }
+
+    /**
+     * Sets the byte order of the file.
+     *
+     * @param byteOrder byte order (default little endian)
+     */
+    public void setByteOrder(ByteOrder byteOrder) {
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Sets the number of x buckets. More buckets give a smaller error and a larger candidate set.
+     *
+     * @param bucketCount even number of buckets, at least 2 (default {@link #DEFAULT_BUCKET_COUNT})
+     */
+    public void setBucketCount(int bucketCount) {
+        if (bucketCount < 2 || bucketCount % 2 != 0) {
+            throw new IllegalArgumentException("bucket count must be even and at least 2: " + bucketCount);
+        }
+        this.bucketCount = bucketCount;
+    }
+
+    /**
+     * Returns the number of points read by the last call of {@link #getConvexHull()}
+     */
+    public long getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the maximal distance of an input point from the hull computed by the last call
+     * of {@link #getConvexHull()}: the width of a bucket.
+     */
+    public double getMaxError() {
+        return (pointCount == 0) ? 0 : width;
+    }
+
+    /**
+     * Reads the file and returns a {@link Geometry} that represents the approximate convex hull
+     * of its points. Same contract as {@link ConvexHull2#getConvexHull()}.
+     *
+     * @return if the convex hull contains 3 or more points, a {@link Polygon};
+     *         2 points, a {@link LineString}; 1 point, a {@link Point}; 0
+     *         points, an empty {@link GeometryCollection}.
+     * @throws IOException if the file cannot be read or its size is not a multiple of 16 bytes
+     */
+    public Geometry getConvexHull() throws IOException {
+        reset();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size % 16 != 0) {
+                throw new IOException("file size is not a multiple of 16 bytes: " + file);
+            }
+
+            double[] batch = new double[BATCH_DOUBLES];
+            for (long pos = 0; pos < size; pos += CHUNK_BYTES) {
+                DoubleBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(CHUNK_BYTES, size - pos))
+                        .order(byteOrder).asDoubleBuffer();
+                while (buffer.hasRemaining()) {
+                    int len = Math.min(batch.length, buffer.remaining());
+                    buffer.get(batch, 0, len);
+                    for (int i = 0; i < len; i += 2) {
+                        add(batch[i], batch[i + 1]);
+                    }
+                }
+            }
+        }
+        return createHull();
+    }
+
+    private void reset() {
+        minX = new double[bucketCount];
+        minY = new double[bucketCount];
+        maxX = new double[bucketCount];
+        maxY = new double[bucketCount];
+        Arrays.fill(minY, Double.POSITIVE_INFINITY);
+        pointCount = 0;
+    }
+
+    private void add(double x, double y) {
+        if (Double.isNaN(x) || Double.isNaN(y) || Double.isInfinite(x) || Double.isInfinite(y)) {
+            throw new IllegalArgumentException("non finite coordinate at point " + pointCount + ": " + x + " " + y);
+        }
+
+        if (pointCount++ == 0) {
+            lo = x;
+            width = Math.ulp(x);
+            leftX = rightX = x;
+            leftMinY = leftMaxY = rightMinY = rightMaxY = y;
+        }
+
+        // extreme points
+        if (x < leftX) {
+            leftX = x;
+            leftMinY = leftMaxY = y;
+        } else if (x == leftX) {
+            leftMinY = Math.min(leftMinY, y);
+            leftMaxY = Math.max(leftMaxY, y);
+        }
+        if (x > rightX) {
+            rightX = x;
+            rightMinY = rightMaxY = y;
+        } else if (x == rightX) {
+            rightMinY = Math.min(rightMinY, y);
+            rightMaxY = Math.max(rightMaxY, y);
+        }
+
+        // bucket extremes
+        if (x < lo) {
+            growLeft(x);
+        } else if (x >= lo + bucketCount*width) {
+            growRight(x);
+        }
+        int i = Math.min(bucketCount - 1, (int)((x - lo)/width));
+        if (y < minY[i]) {
+            if (minY[i] == Double.POSITIVE_INFINITY) {
+                maxX[i] = x;
+                maxY[i] = y;
+            }
+            minX[i] = x;
+            minY[i] = y;
+        } else if (y > maxY[i]) {
+            maxX[i] = x;
+            maxY[i] = y;
+        }
+    }
+
+    /**
+     * Extends the range to the left until it contains x
+     */
+    private void growLeft(double x) {
+        int shift = 0;
+        double w = width;
+        while (x < lo - (w - width)*bucketCount) {
+            w *= 2;
+            shift++;
+        }
+        // old bucket i becomes part of the new bucket (B (2^shift - 1) + i) / 2^shift
+        remap(true, shift);
+        lo -= (w - width)*bucketCount;
+        width = w;
+    }
+
+    /**
+     * Extends the range to the right until it contains x
+     */
+    private void growRight(double x) {
+        int shift = 0;
+        double w = width;
+        while (x >= lo + bucketCount*w) {
+            w *= 2;
+            shift++;
+        }
+        // old bucket i becomes part of the new bucket i / 2^shift
+        remap(false, shift);
+        width = w;
+    }
+
+    /**
+     * Merges the buckets after the range has grown by the factor 2^shift
+     * @param left true if the range has grown to the left
+     */
+    private void remap(boolean left, int shift) {
+        final int n = bucketCount;
+        final long offset = left ? (long)n*((1L << Math.min(shift, MAX_SHIFT)) - 1) : 0;
+        double[] nMinX = new double[n], nMinY = new double[n], nMaxX = new double[n], nMaxY = new double[n];
+        Arrays.fill(nMinY, Double.POSITIVE_INFINITY);
+
+        for (int i = 0; i < n; i++) {
+            if (minY[i] == Double.POSITIVE_INFINITY) continue;
+
+            int j;
+            if (shift >= MAX_SHIFT) {
+                j = left ? n - 1 : 0;
+            } else {
+                j = (int)((offset + i) >> shift);
+            }
+
+            if (nMinY[j] == Double.POSITIVE_INFINITY) {
+                nMinX[j] = minX[i]; nMinY[j] = minY[i];
+                nMaxX[j] = maxX[i]; nMaxY[j] = maxY[i];
+            } else {
+                if (minY[i] < nMinY[j]) {
+                    nMinX[j] = minX[i]; nMinY[j] = minY[i];
+                }
+                if (maxY[i] > nMaxY[j]) {
+                    nMaxX[j] = maxX[i]; nMaxY[j] = maxY[i];
+                }
+            }
+        }
+        minX = nMinX;
+        minY = nMinY;
+        maxX = nMaxX;
+        maxY = nMaxY;
+    }
+
+    private Geometry createHull() {
+        final int n = bucketCount;
+        double[] xs = new double[2*n + 4];
+        double[] ys = new double[2*n + 4];
+        int k = 0;
+
+        if (pointCount > 0) {
+            xs[k] = leftX;  ys[k++] = leftMinY;
+            xs[k] = leftX;  ys[k++] = leftMaxY;
+            xs[k] = rightX; ys[k++] = rightMinY;
+            xs[k] = rightX; ys[k++] = rightMaxY;
+        }
+        for (int i = 0; i < n; i++) {
+            if (minY[i] == Double.POSITIVE_INFINITY) continue;
+            xs[k] = minX[i]; ys[k++] = minY[i];
+            xs[k] = maxX[i]; ys[k++] = maxY[i];
+        }
+        return PackedConvexHull.createHull(geomFactory, xs, ys, k, new int[k], new int[2*k]);
+    }
+}
@@ -0,0 +1,253 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.*;
+import mse.alg.Orientation;
+
+/**
+ * Computes the convex hull of points given as packed primitive arrays.
+ * <p>
+ * Same monotone chain approach as {@link ConvexHull2}, but the points are never
+ * boxed into {@link Coordinate}s: they are sorted through an <code>int</code> index
+ * permutation and both chains are built on an <code>int</code> index stack.
+ * Only the vertices of the resulting hull are converted into coordinates.
+ *
+ * @version 1.0
+ */
+public class PackedConvexHull {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private GeometryFactory geomFactory;
+    private double[] xs;
+    private double[] ys;
+    private int n;
+
+    /**
+     * Create a new convex hull construction for the points (xs[i], ys[i]).
+     * The arrays are not modified.
+     */
+    public PackedConvexHull(double[] xs, double[] ys, GeometryFactory geomFactory) {
+        this(xs, ys, Math.min(xs.length, ys.length), geomFactory);
+    }
+
+    /**
+     * Create a new convex hull construction for the first n points (xs[i], ys[i]).
+     * The arrays are not modified.
+     */
+    public PackedConvexHull(double[] xs, double[] ys, int n, GeometryFactory geomFactory) {
+        if (n > xs.length || n > ys.length) {
+            throw new IllegalArgumentException("n exceeds the coordinate arrays: " + n);
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.n = n;
+        this.geomFactory = geomFactory;
+    }
+
+    /**
+     * Create a new convex hull construction for the input {@link Geometry}.
+     */
+    public PackedConvexHull(Geometry geometry) {
+        this(geometry.getCoordinates(), geometry.getFactory());
+    }
+
+    /**
+     * Create a new convex hull construction for the input {@link Coordinate}
+     * array.
+     */
+    public PackedConvexHull(Coordinate[] pts, GeometryFactory geomFactory) {
+        this.n = pts.length;
+        this.xs = new double[n];
+        this.ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = pts[i].x;
+            ys[i] = pts[i].y;
+        }
+        this.geomFactory = geomFactory;
+    }
+
+    /**
+     * Create a new convex hull construction for interleaved points
+     * { x0, y0, x1, y1, ... }.
+     */
+    public static PackedConvexHull fromInterleaved(double[] xy, GeometryFactory geomFactory) {
+        int n = xy.length / 2;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = xy[2*i];
+            ys[i] = xy[2*i + 1];
+        }
+        return new PackedConvexHull(xs, ys, n, geomFactory);
+    }
+
+    /**
+     * Returns a {@link Geometry} that represents the convex hull of the input
+     * points. Same contract as {@link ConvexHull2#getConvexHull()}.
+     *
+     * @return if the convex hull contains 3 or more points, a {@link Polygon};
+     *         2 points, a {@link LineString}; 1 point, a {@link Point}; 0
+     *         points, an empty {@link GeometryCollection}.
+     */
+    public Geometry getConvexHull() {
+        int[] order = new int[n];
+        int[] hull = new int[2*n];
+        return createHull(geomFactory, xs, ys, n, order, hull);
+    }
+
+    /**
+     * Computes the hull of the points (xs[i], ys[i]) for i in [0, n) using caller provided buffers.
+     * @param geomFactory factory of the resulting geometry
+     * @param order index buffer of capacity n
+     * @param hull index buffer of capacity 2n
+     * @return convex hull geometry
+     */
+    static Geometry createHull(GeometryFactory geomFactory, double[] xs, double[] ys, int n, int[] order, int[] hull) {
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sortByX(xs, ys, order, 0, n);
+        int m = removeDuplicates(xs, ys, order, n);
+
+        if (m == 0) {
+            return geomFactory.createGeometryCollection(null);
+        }
+        if (m == 1) {
+            return geomFactory.createPoint(new Coordinate(xs[order[0]], ys[order[0]]));
+        }
+
+        int k;
+        if (m == 2) {
+            hull[0] = order[0];
+            hull[1] = order[1];
+            k = 2;
+        } else {
+            k = buildHull(xs, ys, order, m, hull);
+        }
+
+        Coordinate[] coords = new Coordinate[k];
+        for (int i = 0; i < k; i++) {
+            coords[i] = new Coordinate(xs[hull[i]], ys[hull[i]]);
+        }
+        return ConvexHull2.createGeometry(geomFactory, coords);
+    }
+
+    /**
+     * Builds the closed hull ring of the x-sorted, duplicate free points order[0..n)
+     * into hull (capacity 2n) and returns its length. The first n entries of hull are used
+     * as index stack for the lower chain, the upper chain continues on the same stack.
+     * If all points are collinear, the two end points are returned only.
+     */
+    static int buildHull(double[] xs, double[] ys, int[] order, int n, int[] hull) {
+        int k = 0;
+
+        // chain from left to right
+        for (int i = 0; i < n; i++) {
+            int p = order[i];
+            while (k >= 2 && isNoLeftTurn(xs, ys, hull[k-2], hull[k-1], p)) {
+                k--;
+            }
+            hull[k++] = p;
+        }
+
+        // chain from right to left, shares the right most point
+        int lowerSize = k;
+        for (int i = n - 2; i >= 0; i--) {
+            int p = order[i];
+            while (k > lowerSize && isNoLeftTurn(xs, ys, hull[k-2], hull[k-1], p)) {
+                k--;
+            }
+            hull[k++] = p;
+        }
+
+        if (isLine(hull, k, lowerSize)) {
+            hull[1] = hull[lowerSize - 1];
+            return 2;
+        }
+        return k;
+    }
+
+    /**
+     * Both chains contain the same points in opposite order: all points are collinear
+     */
+    private static boolean isLine(int[] hull, int k, int lowerSize) {
+        if (k != 2*lowerSize - 1) return false;
+
+        for (int i = 0; i < lowerSize; i++) {
+            if (hull[i] != hull[k - 1 - i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if b has to be removed from the chain a-b-c: c is on the right side of line a-b
+     * or the three points are collinear (b is no hull vertex then).
+     */
+    private static boolean isNoLeftTurn(double[] xs, double[] ys, int a, int b, int c) {
+        return Orientation.index(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) != Orientation.COUNTERCLOCKWISE;
+    }
+
+    /**
+     * Removes equal points from the sorted permutation order[0..n) and returns the new length
+     */
+    static int removeDuplicates(double[] xs, double[] ys, int[] order, int n) {
+        if (n == 0) return 0;
+
+        int m = 1;
+        for (int i = 1; i < n; i++) {
+            int p = order[i], q = order[m-1];
+            if (xs[p] != xs[q] || ys[p] != ys[q]) {
+                order[m++] = p;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Sorts the permutation order[from..to) by x, then by y
+     */
+    static void sortByX(double[] xs, double[] ys, int[] order, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            // median of three pivot
+            int mid = (from + to) >>> 1;
+            int a = order[from], b = order[mid], c = order[to - 1];
+            int pivot;
+            if (less(xs, ys, a, b)) {
+                pivot = less(xs, ys, b, c) ? b : (less(xs, ys, a, c) ? c : a);
+            } else {
+                pivot = less(xs, ys, a, c) ? a : (less(xs, ys, b, c) ? c : b);
+            }
+
+            // Hoare partition: equal keys are spread over both sides
+            int i = from - 1, j = to;
+            while (true) {
+                do { i++; } while (less(xs, ys, order[i], pivot));
+                do { j--; } while (less(xs, ys, pivot, order[j]));
+                if (i >= j) break;
+                int t = order[i]; order[i] = order[j]; order[j] = t;
+            }
+
+            // recurse into the smaller part, loop on the larger one
+            if (j + 1 - from < to - j - 1) {
+                sortByX(xs, ys, order, from, j + 1);
+                from = j + 1;
+            } else {
+                sortByX(xs, ys, order, j + 1, to);
+                to = j + 1;
+            }
+        }
+
+        for (int i = from + 1; i < to; i++) {
+            int p = order[i];
+            int j = i - 1;
+            while (j >= from && less(xs, ys, p, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = p;
+        }
+    }
+
+    private static boolean less(double[] xs, double[] ys, int a, int b) {
+        return xs[a] < xs[b] || (xs[a] == xs[b] && ys[a] < ys[b]);
+    }
+}
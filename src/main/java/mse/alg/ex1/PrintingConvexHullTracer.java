@@ -0,0 +1,32 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.DebugUtil;
+
+import java.util.List;
+
+/**
+ * Prints all steps of a convex hull computation to stdout.
+ *
+ * @version 1.0
+ */
+public class PrintingConvexHullTracer implements ConvexHullTracer {
+
+    @Override
+    public void sortedInput(Coordinate[] sortedPts) {
+        System.out.println("Sorted Coordinates by X:");
+        DebugUtil.printAll(sortedPts);
+    }
+
+    @Override
+    public void reduced(Coordinate removed) {
+        System.out.println("Reducing hull since it is concave at " + removed);
+    }
+
+    @Override
+    public void merge(List<Coordinate> upperHull, List<Coordinate> lowerHull) {
+        System.out.println("Merging hulls:");
+        DebugUtil.printAll(upperHull);
+        DebugUtil.printAll(lowerHull);
+    }
+}
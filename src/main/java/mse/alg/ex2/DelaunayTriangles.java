@@ -0,0 +1,69 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.triangulate.IncrementalDelaunayTriangulator;
+import com.vividsolutions.jts.triangulate.quadedge.QuadEdge;
+import com.vividsolutions.jts.triangulate.quadedge.QuadEdgeSubdivision;
+import com.vividsolutions.jts.triangulate.quadedge.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Delaunay triangulation of a point set as a triangle stream.
+ * <p>
+ * The sites are inserted in the same order as by the DelaunayTriangulationBuilder of JTS, so
+ * the triangles and their orientation are the same as the polygons of its triangulation,
+ * but neither a coordinate list nor a polygon is created: every triangle is passed as index
+ * triple into the given vertex arrays. Sites with equal x and y are inserted once.
+ */
+public final class DelaunayTriangles {
+	private DelaunayTriangles() {}
+
+	/**
+	 * Triangulates the points (x[i], y[i]) and passes all triangles to the consumer
+	 * @param x x-coordinates of the vertices
+	 * @param y y-coordinates of the vertices
+	 * @param consumer receives the triangles as index triples
+	 */
+	public static void triangulate(double[] x, double[] y, TriangleConsumer consumer) {
+		assert x.length == y.length;
+		if (x.length < 3) return;
+
+		// sort lexicographically and remove duplicates (first occurrence is kept)
+		Integer[] order = new Integer[x.length];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		Arrays.sort(order, (a, b) -> (x[a] != x[b]) ? Double.compare(x[a], x[b]) : Double.compare(y[a], y[b]));
+
+		List<Vertex> sites = new ArrayList<>(order.length);
+		Envelope env = new Envelope();
+		IndexedVertex prev = null;
+		for (int i : order) {
+			if (prev == null || x[i] != prev.getX() || y[i] != prev.getY()) {
+				prev = new IndexedVertex(x[i], y[i], i);
+				sites.add(prev);
+				env.expandToInclude(x[i], y[i]);
+			}
+		}
+
+		QuadEdgeSubdivision subdiv = new QuadEdgeSubdivision(env, 0);
+		new IncrementalDelaunayTriangulator(subdiv).insertSites(sites);
+		subdiv.visitTriangles((QuadEdge[] edges) -> consumer.triangle(
+				((IndexedVertex)edges[0].orig()).index,
+				((IndexedVertex)edges[1].orig()).index,
+				((IndexedVertex)edges[2].orig()).index), false);
+	}
+
+	/**
+	 * Triangulation site which knows its index in the vertex arrays
+	 */
+	private static class IndexedVertex extends Vertex {
+		final int index;
+
+		IndexedVertex(double x, double y, int index) {
+			super(x, y);
+			this.index = index;
+		}
+	}
+}
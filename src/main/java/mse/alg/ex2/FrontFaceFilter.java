@@ -0,0 +1,132 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.Orientation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stage of the triangle stream: culls the back facing triangles and appends the upper
+ * boundaries of the cylindrically projected front facing triangles as monotone chains
+ * to a list.
+ * <p>
+ * Every vertex is projected at most once, when it is used by the first front facing triangle,
+ * so a filter fed with a part of the terrain only projects that part. No object except
+ * the resulting chains is allocated per triangle.
+ */
+public class FrontFaceFilter implements TriangleConsumer {
+	private final double m_vx, m_vy, m_vz;			// viewpoint
+	private final double[] m_x, m_y, m_z;			// shared vertex arrays
+	private final double[] m_px, m_py;				// projected vertices: x is NaN if not yet projected, infinite if not projectable
+	private final List<MonotoneChain> m_chains;		// resulting chains
+	private final double[] m_chainX = new double[3], m_chainY = new double[3];
+	
+	/**
+	 * Create new filter
+	 * @param viewPoint viewpoint = center of cylinder
+	 * @param x x-coordinates of the vertices
+	 * @param y y-coordinates of the vertices
+	 * @param z heights of the vertices
+	 * @param chains list where the upper boundaries of the front facing triangles are added
+	 */
+	public FrontFaceFilter(Coordinate viewPoint, double[] x, double[] y, double[] z, List<MonotoneChain> chains) {
+		assert x.length == y.length && x.length == z.length;
+		m_vx = viewPoint.x; m_vy = viewPoint.y; m_vz = viewPoint.z;
+		m_x = x; m_y = y; m_z = z;
+		m_chains = chains;
+		
+		m_px = new double[x.length];
+		m_py = new double[x.length];
+		Arrays.fill(m_px, Double.NaN);
+	}
+	
+	@Override
+	public void triangle(int i0, int i1, int i2) {
+		// compute normal of triangle
+		double ax = m_x[i1] - m_x[i0], ay = m_y[i1] - m_y[i0], az = m_z[i1] - m_z[i0];
+		double bx = m_x[i2] - m_x[i0], by = m_y[i2] - m_y[i0], bz = m_z[i2] - m_z[i0];
+		double nx = ay*bz - by*az, ny = az*bx - bz*ax, nz = ax*by - bx*ay;
+		
+		// test for front- or back-facing triangle: the view direction needn't be normalized
+		double dot = (m_x[i0] - m_vx)*nx + (m_y[i0] - m_vy)*ny + (m_z[i0] - m_vz)*nz;
+		if (dot < 0) { // cos of angle between vectors is negative
+			// front-facing triangle
+			computeUpperBoundary(i0, i1, i2);
+		}
+	}
+	
+	/**
+	 * Computes the upper boundary of the projected triangle and adds it to the chains
+	 *
+	 */
+	private void computeUpperBoundary(int i0, int i1, int i2) {
+		if (!project(i0) || !project(i1) || !project(i2)) return;
+		
+		int minX = i0, maxX = i0, midX;
+		if (isLess(i1, minX)) minX = i1;
+		if (isLess(maxX, i1)) maxX = i1;
+		if (isLess(i2, minX)) minX = i2;
+		if (isLess(maxX, i2)) maxX = i2;
+		if (i0 != minX && i0 != maxX) midX = i0;
+		else if (i1 != minX && i1 != maxX) midX = i1;
+		else midX = i2;
+		
+		// compute upper boundary
+		int orient = Orientation.index(m_px[minX], m_py[minX], m_px[maxX], m_py[maxX], m_px[midX], m_py[midX]);
+		if (orient == 1) {
+			// midX is to the left of (minX, maxX)
+			if (m_px[minX] == m_px[midX]) {
+				// handles 90° angles correctly
+				add(midX, maxX);
+			} else {
+				add(minX, midX, maxX);
+			}
+		} else if (orient == -1 && m_px[minX] < m_px[maxX]) {
+			// midX is to the right of (minX, maxX)
+			// handles also 90° angles correctly
+			add(minX, maxX);
+		}
+	}
+	
+	/**
+	 * Lexicographic order of the projected vertices
+	 */
+	private boolean isLess(int i, int j) {
+		return m_px[i] < m_px[j] || (m_px[i] == m_px[j] && m_py[i] < m_py[j]);
+	}
+	
+	private void add(int i0, int i1) {
+		m_chainX[0] = m_px[i0]; m_chainY[0] = m_py[i0];
+		m_chainX[1] = m_px[i1]; m_chainY[1] = m_py[i1];
+		m_chains.add(MonotoneChain.create(m_chainX, m_chainY, 2));
+	}
+	
+	private void add(int i0, int i1, int i2) {
+		m_chainX[0] = m_px[i0]; m_chainY[0] = m_py[i0];
+		m_chainX[1] = m_px[i1]; m_chainY[1] = m_py[i1];
+		m_chainX[2] = m_px[i2]; m_chainY[2] = m_py[i2];
+		m_chains.add(MonotoneChain.create(m_chainX, m_chainY, 3));
+	}
+	
+	/**
+	 * Cylindrical projection of vertex i (see {@link MathUtil#cylindricalProjection}) if not yet done
+	 * @return true if the vertex is projectable
+	 */
+	private boolean project(int i) {
+		if (!Double.isNaN(m_px[i])) return m_px[i] != Double.POSITIVE_INFINITY;
+		
+		double dx = m_vx - m_x[i], dy = m_vy - m_y[i];
+		double dist = Math.sqrt(dx*dx + dy*dy);
+		double x = (dist == 0) ? Double.NaN : Math.atan2(dy, dx)*MathUtil.X_SCALE;
+		
+		if (Double.isNaN(x) || x < -MathUtil.MAX_X || x > MathUtil.MAX_X) {
+			m_px[i] = Double.POSITIVE_INFINITY;
+			return false;
+		} else {
+			m_px[i] = x;
+			m_py[i] = MathUtil.Y_SCALE*(m_z[i] - m_vz)/dist;
+			return true;
+		}
+	}
+}
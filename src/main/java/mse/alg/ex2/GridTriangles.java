@@ -0,0 +1,145 @@
+package mse.alg.ex2;
+
+import java.util.Arrays;
+
+/**
+ * Implicit triangulation of a terrain on a regular grid (digital elevation model) as a
+ * triangle stream.
+ * <p>
+ * Every vertex is assigned to its grid node in O(1), so no point location is needed:
+ * every grid cell is split into two counterclockwise triangles (the orientation of
+ * {@link DelaunayTriangles}) along the diagonal from its lower left to its upper right corner.
+ * {@link #detect(double[], double[])} only accepts complete grids. Missing grid nodes are allowed
+ * if the spacing is given explicitly ({@link #of(double[], double[], double, double)}); a triangle
+ * is only streamed if its three vertices exist.
+ */
+public final class GridTriangles {
+	private static final double TOLERANCE = 1.0e-6;		// tolerance of the grid positions in cells
+	private static final int MAX_FILL = 4;				// maximal number of grid nodes per vertex of an explicit grid
+	
+	private final int m_cols, m_rows;					// number of grid nodes in x and y direction
+	private final int[] m_nodes;						// vertex index of every grid node (row by row) or -1
+	
+	private GridTriangles(int cols, int rows, int[] nodes) {
+		m_cols = cols;
+		m_rows = rows;
+		m_nodes = nodes;
+	}
+	
+	/**
+	 * Detects if the points (x[i], y[i]) occupy every node of a regular axis parallel grid. The
+	 * spacing in each direction is the smallest positive distance to the minimal coordinate.
+	 * Scattered points on an integer lattice don't form a grid: the triangles around missing
+	 * nodes would be lost, they need a Delaunay triangulation.
+	 * @param x x-coordinates of the vertices
+	 * @param y y-coordinates of the vertices
+	 * @return grid triangulation or null if the points don't form a complete regular grid
+	 */
+	public static GridTriangles detect(double[] x, double[] y) {
+		return create(x, y, spacing(x), spacing(y), true);
+	}
+	
+	/**
+	 * Assigns the points (x[i], y[i]) to the grid nodes of the given spacing
+	 * @param x x-coordinates of the vertices
+	 * @param y y-coordinates of the vertices
+	 * @param spacingX grid spacing in x direction
+	 * @param spacingY grid spacing in y direction
+	 * @return grid triangulation
+	 * @throws IllegalArgumentException if the points don't lie on distinct nodes of this grid
+	 */
+	public static GridTriangles of(double[] x, double[] y, double spacingX, double spacingY) {
+		if (!(spacingX > 0 && spacingY > 0)) {
+			throw new IllegalArgumentException("invalid spacing: " + spacingX + ", " + spacingY);
+		}
+		GridTriangles grid = create(x, y, spacingX, spacingY, false);
+		if (grid == null) {
+			throw new IllegalArgumentException("points don't lie on distinct nodes of a grid with spacing " + spacingX + ", " + spacingY);
+		}
+		return grid;
+	}
+	
+	/**
+	 * Assigns the points to the grid nodes
+	 * @param complete true if every grid node needs a vertex
+	 * @return grid triangulation or null if the points don't lie on distinct nodes of the grid
+	 */
+	private static GridTriangles create(double[] x, double[] y, double spacingX, double spacingY, boolean complete) {
+		assert x.length == y.length;
+		if (x.length < 3 || Double.isNaN(spacingX) || Double.isNaN(spacingY)) return null;
+		
+		double minX = min(x), minY = min(y);
+		long cols = Math.round((max(x) - minX)/spacingX) + 1;
+		long rows = Math.round((max(y) - minY)/spacingY) + 1;
+		long maxNodes = complete ? x.length : (long)MAX_FILL*x.length;
+		if (cols > maxNodes || rows > maxNodes || cols*rows > maxNodes) return null;
+		if (complete && cols*rows != x.length) return null;
+		
+		int[] nodes = new int[(int)(cols*rows)];
+		Arrays.fill(nodes, -1);
+		for (int i = 0; i < x.length; i++) {
+			double c = (x[i] - minX)/spacingX, r = (y[i] - minY)/spacingY;
+			long col = Math.round(c), row = Math.round(r);
+			if (!(Math.abs(c - col) <= TOLERANCE && Math.abs(r - row) <= TOLERANCE)) return null;
+			
+			int node = (int)(row*cols + col);
+			if (nodes[node] >= 0) return null;
+			nodes[node] = i;
+		}
+		return new GridTriangles((int)cols, (int)rows, nodes);
+	}
+	
+	/**
+	 * Passes all triangles to the consumer
+	 * @param consumer receives the triangles as index triples
+	 */
+	public void triangulate(TriangleConsumer consumer) {
+		for (int row = 0; row < m_rows - 1; row++) {
+			int lower = row*m_cols, upper = lower + m_cols;
+			for (int col = 0; col < m_cols - 1; col++) {
+				int ll = m_nodes[lower + col], lr = m_nodes[lower + col + 1];
+				int ul = m_nodes[upper + col], ur = m_nodes[upper + col + 1];
+				
+				if (ll >= 0 && lr >= 0 && ur >= 0) consumer.triangle(ll, lr, ur);
+				if (ll >= 0 && ur >= 0 && ul >= 0) consumer.triangle(ll, ur, ul);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of grid nodes in x direction
+	 */
+	public int getColumns() {
+		return m_cols;
+	}
+	
+	/**
+	 * Returns the number of grid nodes in y direction
+	 */
+	public int getRows() {
+		return m_rows;
+	}
+	
+	/**
+	 * Smallest positive distance to the minimal value, NaN if all values are equal
+	 */
+	private static double spacing(double[] v) {
+		double min = min(v), spacing = Double.POSITIVE_INFINITY;
+		for (double d : v) {
+			if (d > min && d - min < spacing) spacing = d - min;
+		}
+		return (spacing == Double.POSITIVE_INFINITY) ? Double.NaN : spacing;
+	}
+	
+	private static double min(double[] v) {
+		double min = Double.POSITIVE_INFINITY;
+		for (double d : v) min = Math.min(min, d);
+		return min;
+	}
+	
+	private static double max(double[] v) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (double d : v) max = Math.max(max, d);
+		return max;
+	}
+}
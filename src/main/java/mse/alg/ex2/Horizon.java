@@ -1,6 +1,6 @@
 package  mse.alg.ex2;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -8,16 +8,19 @@ import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.MultiLineString;
 
 /**
- * x-monotone linked list of strictly x-monotone chains
+ * x-monotone list of strictly x-monotone chains
  * @author Christoph Stamm
  * @author E. Neher
  * @author S. Marcin
  * @author P. Buettiker
  */
 public class Horizon {
-	private LinkedList<MonotoneChain> m_chains = new LinkedList<>();	// x-monotone linked list of chains
+	private ArrayList<MonotoneChain> m_chains = new ArrayList<>();	// x-monotone list of chains
 
-	private Horizon() {	}
+	/**
+	 * Creates new empty horizon
+	 */
+	Horizon() {	}
 
 	/**
 	 * Creates new horizon of one monotone chain
@@ -38,14 +41,15 @@ public class Horizon {
 
 	/**
 	 * Merges two horizons (this and h) in O(n + k) time and returns the merged horizon.
-	 * Uses a plane sweep approach.
+	 * Uses a plane sweep approach: the vertices of both x-sorted horizons are merged in
+	 * one linear pass and handed directly to the sweep line status, without an event queue.
 	 * 
 	 * @param h second horizon
 	 * @return merged horizon
 	 */
 	public Horizon merge(Horizon h) {
 		Horizon horizon = new Horizon();
-		SweepLine<Status> sl = new SweepLine<Status>(new Status(horizon));
+		Status status = new Status(horizon);
 
 		// printDebug(h);
 
@@ -53,35 +57,27 @@ public class Horizon {
 		SortHorizon sort2 = new SortHorizon(h.m_chains);
 
 		while(!sort1.isFinished() || !sort2.isFinished()) {
-			if (!sort1.isFinished()) {
-				if (sort2.isFinished() || sort1.getX() <= sort2.getX()) {
-					emitEvent(sl, sort1);
-					continue;
-				}
-			}
-			if (!sort2.isFinished()) {
-				if (sort1.isFinished() || sort2.getX() <= sort1.getX()) {
-					emitEvent(sl, sort1);
-					continue;
-				}
+			if (sort2.isFinished() || (!sort1.isFinished() && sort1.isBefore(sort2))) {
+				handleVertex(status, sort1);
+			} else {
+				handleVertex(status, sort2);
 			}
 		}
 
-		sl.process();
 		assert horizon.isValid() : "invalid horizon";
 		return horizon;
 	}
 
-	private void emitEvent(SweepLine<Status> sl, SortHorizon sortHorizon){
+	private void handleVertex(Status status, SortHorizon sortHorizon){
+		MonotoneChain mc = sortHorizon.getChain();
 		if (sortHorizon.isNextStart()) {
-			sl.addEvent(new StartEvent(sl, sortHorizon.getX(), sortHorizon.getNext()));
+			status.start(mc);
 		}else if (sortHorizon.isNextStop()) {
-			sl.addEvent(new StopEvent(sl, sortHorizon.getX(), sortHorizon.getNext(), sortHorizon.getStopIndex()));
-		}else if (sortHorizon.isNextInner()) {
-			sl.addEvent(new InnerEvent(sl, sortHorizon.getX(), sortHorizon.getNext(), sortHorizon.getIndex() - 1));
+			status.stop(mc, sortHorizon.getIndex());
 		}else{
-			throw new IllegalStateException("Something went wrong!");
+			status.next(mc, sortHorizon.getIndex());
 		}
+		sortHorizon.next();
 	}
 
 	/**
@@ -98,6 +94,64 @@ public class Horizon {
 		return true;
 	}
 
+	/**
+	 * Computes the maximal y-coordinate of the horizon at x in O(log n) time:
+	 * at a vertical jump the upper end of the jump
+	 * @param x
+	 * @return max y at x or negative infinity if x isn't covered by the horizon
+	 */
+	public double getMaxY(double x) {
+		int i = chainIndex(x);
+		if (i < 0) return Double.NEGATIVE_INFINITY;
+		
+		MonotoneChain mc = m_chains.get(i);
+		double y = (x <= mc.getMaxX()) ? mc.interpolateY(x) : Double.NEGATIVE_INFINITY;
+		if (i > 0) {
+			MonotoneChain prev = m_chains.get(i - 1);
+			if (prev.getMaxX() == x) y = Math.max(y, prev.getY(prev.size() - 1));
+		}
+		return y;
+	}
+	
+	/**
+	 * Computes a lower bound of the horizon in the x-range [x0, x1] in O(log n + k) time,
+	 * where k is the number of vertices in the range: the minimal y of all chains in the range
+	 * @param x0 start of the range
+	 * @param x1 end of the range, x0 <= x1
+	 * @return minimal y in [x0, x1] or negative infinity if a part of the range isn't covered by the horizon
+	 */
+	public double getMinY(double x0, double x1) {
+		assert x0 <= x1 : "invalid range: " + x0 + ", " + x1;
+		int i = chainIndex(x0);
+		if (i < 0 || m_chains.get(i).getMaxX() < x0) return Double.NEGATIVE_INFINITY;
+		
+		double min = Double.POSITIVE_INFINITY;
+		MonotoneChain mc = m_chains.get(i);
+		while (true) {
+			min = Math.min(min, mc.getMinY(Math.max(x0, mc.getMinX()), Math.min(x1, mc.getMaxX())));
+			if (x1 <= mc.getMaxX()) return min;
+			
+			// the next chain has to continue without a gap
+			if (++i == m_chains.size()) return Double.NEGATIVE_INFINITY;
+			MonotoneChain next = m_chains.get(i);
+			if (next.getMinX() != mc.getMaxX()) return Double.NEGATIVE_INFINITY;
+			mc = next;
+		}
+	}
+	
+	/**
+	 * Returns the index of the last chain starting at or left of x or -1
+	 */
+	private int chainIndex(double x) {
+		int lo = 0, hi = m_chains.size() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (m_chains.get(mid).getMinX() <= x) lo = mid + 1;
+			else hi = mid - 1;
+		}
+		return hi;
+	}
+
 	/**
 	 * Interface to JTS
 	 * @return LineString without duplicated points
@@ -119,12 +173,9 @@ public class Horizon {
 		cnt = 0;
 		prev = null;
 		for(MonotoneChain mc: m_chains) {
-			if (prev != null && prev.isLeftSiblingOf(mc)) {
-				System.arraycopy(mc.getCoords(), 1, coords, cnt, mc.size() - 1);
-				cnt += mc.size() - 1;
-			} else {
-				System.arraycopy(mc.getCoords(), 0, coords, cnt, mc.size());
-				cnt += mc.size();
+			int first = (prev != null && prev.isLeftSiblingOf(mc)) ? 1 : 0;
+			for (int i = first; i < mc.size(); i++) {
+				coords[cnt++] = new Coordinate(mc.getX(i), mc.getY(i));
 			}
 			prev = mc;
 		}
@@ -152,7 +203,7 @@ public class Horizon {
 	 */
 	public void add(MonotoneChain mc) {
 		if (mc != null) {
-			assert m_chains.isEmpty() || m_chains.getLast().getMaxX() <= mc.getMinX();
+			assert m_chains.isEmpty() || m_chains.get(m_chains.size() - 1).getMaxX() <= mc.getMinX();
 			m_chains.add(mc);
 		}
 	}
@@ -161,12 +212,12 @@ public class Horizon {
 		System.out.println("--- Start ---");
 		for(int j=0; j < this.m_chains.size(); j++) {
 			for (int i = 0; i < this.m_chains.get(j).size(); i++) {
-				System.out.println(j + "-this: " + this.m_chains.get(j).get(i).toString());
+				System.out.println(j + "-this: (" + this.m_chains.get(j).getX(i) + ", " + this.m_chains.get(j).getY(i) + ")");
 			}
 		}
 		for(int j=0; j < h.m_chains.size(); j++) {
 			for (int i = 0; i < h.m_chains.get(j).size(); i++) {
-				System.out.println(j + "-h: " + h.m_chains.get(j).get(i).toString());
+				System.out.println(j + "-h: (" + h.m_chains.get(j).getX(i) + ", " + h.m_chains.get(j).getY(i) + ")");
 			}
 		}
 	}
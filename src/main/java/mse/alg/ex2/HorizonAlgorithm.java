@@ -1,19 +1,59 @@
 package mse.alg.ex2;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Created by IsNull on 04.10.14.
  */
 public class HorizonAlgorithm {
+    /**
+     * Default maximal number of chains computed sequentially in the parallel mode
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 12;
+
+    private boolean parallel;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Enables the parallel mode: both halves of the divide and conquer recursion are computed
+     * as tasks on the common {@link ForkJoinPool}. The division is the same as in the sequential
+     * mode, so the resulting horizon is identical.
+     *
+     * @param parallel true to enable the parallel mode (default false)
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the sequential cutoff: ranges of at most this number of chains are computed
+     * sequentially in the parallel mode.
+     *
+     * @param parallelThreshold maximal number of chains per sequential task
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("threshold too small: " + parallelThreshold);
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
 
     /**
      * Compute the horizon from the x sorted chains.
+     * The horizon of no chains is empty.
      *
      * @param chains
      * @return
      */
     public Horizon computeHorizon(List<MonotoneChain> chains){
+        if (chains.isEmpty()) {
+            return new Horizon();
+        }
+        if (parallel && chains.size() > parallelThreshold) {
+            return ForkJoinPool.commonPool().invoke(new HorizonTask(chains, 0, chains.size()-1));
+        }
         return computeHorizon(chains, 0, chains.size()-1);
     }
 
@@ -38,5 +78,34 @@ public class HorizonAlgorithm {
         }
     }
 
+    private class HorizonTask extends RecursiveTask<Horizon> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<MonotoneChain> chains;
+        private final int start, end;
+
+        HorizonTask(List<MonotoneChain> chains, int start, int end) {
+            this.chains = chains;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Horizon compute() {
+            if (end - start < parallelThreshold) {
+                return computeHorizon(chains, start, end);
+            }
+
+            // same division as the sequential recursion
+            int middle = (start + end) / 2;
+            HorizonTask part1 = new HorizonTask(chains, start, middle);
+            HorizonTask part2 = new HorizonTask(chains, middle + 1, end);
+            part1.fork();
+            Horizon h2 = part2.compute();
+            Horizon h1 = part1.join();
+
+            return h1.merge(h2);
+        }
+    }
 
 }
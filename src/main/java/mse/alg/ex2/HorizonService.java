@@ -0,0 +1,86 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the horizons of many viewpoints over the same terrain.
+ * <p>
+ * The terrain is loaded and triangulated once; for every viewpoint only the front facing
+ * triangles are filtered and merged. A batch of viewpoints is computed in parallel on the
+ * common {@link java.util.concurrent.ForkJoinPool}: every viewpoint has its own chains and
+ * sweep line state, only the immutable terrain is shared.
+ * <p>
+ * In the level of detail mode the triangles are visited tile by tile from near to far
+ * (see {@link TerrainQuadtree}): hidden tiles are skipped, and tiles narrower than the
+ * coarse width contribute one coarse chain. The service has to be configured before
+ * horizons are computed.
+ */
+public class HorizonService {
+	private final Terrain m_terrain;
+	private TerrainQuadtree m_quadtree;			// null if the level of detail mode is disabled
+	private double m_coarseWidth;
+	
+	/**
+	 * Create new service
+	 * @param terrain triangulated terrain
+	 */
+	public HorizonService(Terrain terrain) {
+		if (terrain == null) throw new IllegalArgumentException("terrain is null");
+		m_terrain = terrain;
+	}
+	
+	public Terrain getTerrain() {
+		return m_terrain;
+	}
+	
+	/**
+	 * Enables the level of detail mode: the quadtree of the terrain is built once.
+	 * With a coarse width of 0 the horizon is the same as without level of detail.
+	 * 
+	 * @param lod true to enable the level of detail mode (default false)
+	 */
+	public void setLevelOfDetail(boolean lod) {
+		if (!lod) {
+			m_quadtree = null;
+		} else if (m_quadtree == null) {
+			m_quadtree = new TerrainQuadtree(m_terrain);
+		}
+	}
+	
+	/**
+	 * Sets the maximal projected width of a tile which is represented by one coarse chain
+	 * in the level of detail mode. The projected x of a full circle is 2000*pi.
+	 * 
+	 * @param coarseWidth maximal projected width; 0 (default) for the exact horizon
+	 */
+	public void setCoarseWidth(double coarseWidth) {
+		if (!(coarseWidth >= 0)) {
+			throw new IllegalArgumentException("invalid coarse width: " + coarseWidth);
+		}
+		m_coarseWidth = coarseWidth;
+	}
+	
+	/**
+	 * Computes the horizon of one viewpoint
+	 * @param viewPoint viewpoint = center of cylinder
+	 * @return computed horizon
+	 */
+	public Horizon computeHorizon(Coordinate viewPoint) {
+		if (m_quadtree != null) {
+			return m_quadtree.computeHorizon(viewPoint, m_coarseWidth);
+		}
+		return new HorizonAlgorithm().computeHorizon(m_terrain.computeChains(viewPoint));
+	}
+	
+	/**
+	 * Computes the horizons of a batch of viewpoints in parallel
+	 * @param viewPoints viewpoints
+	 * @return computed horizons in the order of the viewpoints
+	 */
+	public List<Horizon> computeHorizons(List<Coordinate> viewPoints) {
+		return viewPoints.parallelStream().map(this::computeHorizon).collect(Collectors.toList());
+	}
+}
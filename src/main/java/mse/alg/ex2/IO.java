@@ -34,7 +34,7 @@ public class IO {
 	 * @return new created ArrayList of Coordinate instances
 	 * @throws IOException
 	 */
-	static List<Coordinate> readTerrain(String fileName) throws IOException {
+	public static List<Coordinate> readTerrain(String fileName) throws IOException {
 		ArrayList<Coordinate> terrain = new ArrayList<Coordinate>();
 		
 		try {
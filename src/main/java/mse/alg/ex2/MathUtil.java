@@ -7,6 +7,9 @@ import com.vividsolutions.jts.math.Vector3D;
  * Created by IsNull on 04.10.14.
  */
 public final class MathUtil {
+    static final double X_SCALE = 1000;                     // arbitrary scaling factor
+    static final double Y_SCALE = 10000;                    // arbitrary scaling factor: in reality: X_SCALE = Y_SCALE
+    static final double MAX_X = Math.PI*X_SCALE - 1.0e-10;  // maximal absolute projected x
 
     /**
      * Compute normal vectors of plane span by two vectors
@@ -50,19 +53,15 @@ public final class MathUtil {
      * @return projected point
      */
     public static Coordinate cylindricalProjection(Coordinate vp, Coordinate p) {
-        final double xScale = 1000;		// arbitrary scaling factor
-        final double yScale = 10000;	// arbitrary scaling factor: in reality: xScale = yScale
-        final double max = Math.PI*xScale - 1.0e-10;
-
         double dist = vp.distance(p);
         if (dist == 0) return null;
 
-        double x = Math.atan2(vp.y - p.y, vp.x - p.x)*xScale;
+        double x = Math.atan2(vp.y - p.y, vp.x - p.x)*X_SCALE;
 
-        if (x < -max || x > max) {
+        if (x < -MAX_X || x > MAX_X) {
             return null;
         } else {
-            double y = yScale*(p.z - vp.z)/dist;
+            double y = Y_SCALE*(p.z - vp.z)/dist;
             return new Coordinate(x, y);
         }
     }
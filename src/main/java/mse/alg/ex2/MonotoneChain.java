@@ -1,25 +1,28 @@
 package  mse.alg.ex2;
 
-import com.vividsolutions.jts.algorithm.RobustLineIntersector;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LineString;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Immutable, strictly x-monotone chain of points
+ * Immutable, strictly x-monotone chain of points.
+ * The points are stored in two packed arrays of primitive coordinates; {@link Coordinate}s
+ * are only created by the JTS interface methods ({@link #get(int)}, {@link #getFirst()},
+ * {@link #getLast()}, {@link #getCoords()}, {@link #toLineString()}).
  * @author Christoph Stamm
  *
  */
 public class MonotoneChain implements Comparable<MonotoneChain> {
-	public static RobustLineIntersector s_rli = new RobustLineIntersector();
-
-	private Coordinate[] m_coords;						// coordinates in increasing x-order
+	private final double[] m_x;						// x-coordinates in increasing order
+	private final double[] m_y;						// y-coordinates
 	
-	private MonotoneChain(int size) {
-		assert size >= 2 : "wrong size: " + size;
-		m_coords = new Coordinate[size];
+	private MonotoneChain(double[] x, double[] y) {
+		assert x.length >= 2 && x.length == y.length : "wrong size: " + x.length;
+		m_x = x;
+		m_y = y;
 	}
 
 	/**
@@ -28,9 +31,7 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	 * @param p2
 	 */
 	public MonotoneChain(Coordinate p1, Coordinate p2) {
-		m_coords = new Coordinate[2];
-		add(0, p1);
-		add(1, p2);
+		this(new double[] { p1.x, p2.x }, new double[] { p1.y, p2.y });
 		assert isValid() : "is not x-monotone: " + toLineString();
 	}
 	
@@ -41,10 +42,7 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	 * @param p3
 	 */
 	public MonotoneChain(Coordinate p1, Coordinate p2, Coordinate p3) {
-		m_coords = new Coordinate[3];
-		add(0, p1);
-		add(1, p2);
-		add(2, p3);
+		this(new double[] { p1.x, p2.x, p3.x }, new double[] { p1.y, p2.y, p3.y });
 		assert isValid() : "is not x-monotone: " + toLineString();
 	}
 	
@@ -56,8 +54,30 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	public static MonotoneChain create(List<Coordinate> coords) {
 		if (coords.size() < 2) return null;
 		
-		MonotoneChain mc = new MonotoneChain(coords.size());
-		coords.toArray(mc.m_coords);
+		double[] x = new double[coords.size()], y = new double[coords.size()];
+		for (int i = 0; i < x.length; i++) {
+			Coordinate c = coords.get(i);
+			x[i] = c.x;
+			y[i] = c.y;
+		}
+		MonotoneChain mc = new MonotoneChain(x, y);
+
+		assert mc.isValid() : 
+			"mc is not valid: " + mc.toLineString();
+		return mc;
+	}
+	
+	/**
+	 * Create new x-monotone chain of the first n points (x[i], y[i]). The arrays are copied.
+	 * @param x x-coordinates in increasing order
+	 * @param y y-coordinates
+	 * @param n number of points
+	 * @return x-monotone chain or null if the number of points is too small
+	 */
+	public static MonotoneChain create(double[] x, double[] y, int n) {
+		if (n < 2) return null;
+		
+		MonotoneChain mc = new MonotoneChain(Arrays.copyOf(x, n), Arrays.copyOf(y, n));
 
 		assert mc.isValid() : 
 			"mc is not valid: " + mc.toLineString();
@@ -70,8 +90,8 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	 */
 	public boolean isValid() {
 		// check x-monotonicity
-		for (int i=0; i < m_coords.length - 1; i++) {
-			if (m_coords[i + 1].x <= m_coords[i].x) {
+		for (int i=0; i < m_x.length - 1; i++) {
+			if (m_x[i + 1] <= m_x[i]) {
 				System.out.println("is not x-monotone");
 				return false;
 			}
@@ -84,23 +104,20 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	 * @return JTS line string 
 	 */
 	public LineString toLineString() {
-		return new GeometryFactory().createLineString(m_coords);			
+		return new GeometryFactory().createLineString(getCoords());			
 	}
 	
 	/**
-	 * Return points
-	 * @return
+	 * Interface to JTS: creates new points on every call, changing them doesn't change the chain.
+	 * Use {@link #getX(int)} and {@link #getY(int)} to read the coordinates without allocation.
+	 * @return copy of the points
 	 */
 	public Coordinate[] getCoords() {
-		return m_coords;
-	}
-	
-	/**
-	 * Add point (capacity must be large enough)
-	 * @param c point
-	 */
-	private void add(int i, Coordinate c) {
-		m_coords[i] = c;
+		Coordinate[] coords = new Coordinate[m_x.length];
+		for (int i = 0; i < coords.length; i++) {
+			coords[i] = new Coordinate(m_x[i], m_y[i]);
+		}
+		return coords;
 	}
 	
 	/**
@@ -120,48 +137,109 @@ public class MonotoneChain implements Comparable<MonotoneChain> {
 	 * @return true if this is left sibling of mc
 	 */
 	public boolean isLeftSiblingOf(MonotoneChain mc) {
-		return getLast().equals(mc.getFirst());
+		int last = m_x.length - 1;
+		return m_x[last] == mc.m_x[0] && m_y[last] == mc.m_y[0];
 	}
 	
 	public int size() {
-		return m_coords.length;
+		return m_x.length;
 	}
 	
+	public double getX(int index) {
+		return m_x[index];
+	}
+	
+	public double getY(int index) {
+		return m_y[index];
+	}
+	
+	/**
+	 * Interface to JTS: creates a new point on every call, see {@link #getCoords()}
+	 * @param index
+	 * @return copy of the point
+	 */
 	public Coordinate get(int index) {
-		return m_coords[index];
+		return new Coordinate(m_x[index], m_y[index]);
 	}
 	
 	public double getMinX() {
-		return getFirst().x;
+		return m_x[0];
 	}
 	
 	public double getMaxX() {
-		return getLast().x;
+		return m_x[m_x.length - 1];
 	}
 	
+	/**
+	 * Interface to JTS: creates a new point on every call, see {@link #getCoords()}
+	 * @return copy of the first point
+	 */
 	public Coordinate getFirst() {
-		return m_coords[0];
+		return get(0);
 	}
 	
+	/**
+	 * Interface to JTS: creates a new point on every call, see {@link #getCoords()}
+	 * @return copy of the last point
+	 */
 	public Coordinate getLast() {
-		return m_coords[m_coords.length - 1];
+		return get(m_x.length - 1);
 	}
 
 	/**
-	 * Splits a line segment vertically at x and computes an intersection point
+	 * Splits a line segment vertically at x and computes the y-coordinate of the intersection point
 	 * 
 	 * @param startIndex start index of the segment being splitted
 	 * @param x
+	 * @return y of the segment at x (y of an end point if x is the x of an end point)
+	 *         or NaN if x is outside of the segment
 	 */
-	public Coordinate splitSegment(int startIndex, double x) {
-		final double offset = 10; // arbitrary value > 0
-		
-		Coordinate p1 = m_coords[startIndex], p2 = m_coords[startIndex + 1];
-		double yMin = Math.min(p1.y, p2.y) - offset;
-		double yMax = Math.max(p1.y, p2.y) + offset;
-		s_rli.computeIntersection(p1, p2, new Coordinate(x, yMin), new Coordinate(x, yMax));
+	public double splitSegment(int startIndex, double x) {
+		double x1 = m_x[startIndex], x2 = m_x[startIndex + 1];
+		if (x < x1 || x > x2) return Double.NaN;
+		if (x == x1) return m_y[startIndex];
+		if (x == x2) return m_y[startIndex + 1];
 		
-		return (s_rli.hasIntersection()) ? s_rli.getIntersection(0) : null;
+		double y1 = m_y[startIndex], y2 = m_y[startIndex + 1];
+		return y1 + (y2 - y1)*(x - x1)/(x2 - x1);
+	}
+	
+	/**
+	 * Computes the y-coordinate of the chain at x in O(log n) time
+	 * 
+	 * @param x
+	 * @return y of the chain at x or NaN if x is outside of the chain
+	 */
+	public double interpolateY(double x) {
+		if (x < m_x[0] || x > m_x[m_x.length - 1]) return Double.NaN;
+		return splitSegment(segmentIndex(x), x);
+	}
+	
+	/**
+	 * Computes the minimal y-coordinate of the chain in the x-range [x0, x1] in O(log n + k) time,
+	 * where k is the number of vertices in the range
+	 * 
+	 * @param x0 start of the range, x0 >= getMinX()
+	 * @param x1 end of the range, x0 <= x1 <= getMaxX()
+	 * @return minimal y in [x0, x1]
+	 */
+	public double getMinY(double x0, double x1) {
+		assert m_x[0] <= x0 && x0 <= x1 && x1 <= m_x[m_x.length - 1] : "invalid range: " + x0 + ", " + x1;
+		int i = segmentIndex(x0);
+		double min = splitSegment(i, x0);
+		for (i++; m_x[i] < x1; i++) {
+			min = Math.min(min, m_y[i]);
+		}
+		return Math.min(min, splitSegment(i - 1, x1));
+	}
+	
+	/**
+	 * Returns the start index of a segment containing x
+	 */
+	private int segmentIndex(double x) {
+		int i = Arrays.binarySearch(m_x, x);
+		if (i < 0) i = -i - 2;
+		return Math.max(0, Math.min(i, m_x.length - 2));
 	}
 	
 }
@@ -0,0 +1,67 @@
+package mse.alg.ex2;
+
+import mse.alg.Orientation;
+
+/**
+ * Allocation free intersection test of two strictly x-monotone line segments.
+ * <p>
+ * The classification uses the exact orientation predicate. The point of a proper
+ * intersection is stored in this object, which serves as scratch of the caller: every
+ * {@link Status} owns its own intersector, so concurrent sweeps don't share any state.
+ */
+final class SegmentIntersector {
+	public static final int NO_INTERSECTION = 0;
+	public static final int PROPER = 1;		// one point in the interior of both segments
+	public static final int TOUCH = 2;		// an end point on the other segment or collinear overlap
+
+	private double m_x, m_y;				// point of the last proper intersection
+
+	/**
+	 * Computes the intersection of the segments p0-p1 and q0-q1 (p0x < p1x, q0x < q1x)
+	 * @return NO_INTERSECTION, PROPER or TOUCH
+	 */
+	public int compute(double p0x, double p0y, double p1x, double p1y, double q0x, double q0y, double q1x, double q1y) {
+		double minX = Math.max(p0x, q0x), maxX = Math.min(p1x, q1x);
+		if (minX > maxX) return NO_INTERSECTION;
+
+		int op0 = Orientation.index(p0x, p0y, p1x, p1y, q0x, q0y), op1 = Orientation.index(p0x, p0y, p1x, p1y, q1x, q1y);
+		if (op0 == op1 && op0 != Orientation.COLLINEAR) return NO_INTERSECTION;
+		int oq0 = Orientation.index(q0x, q0y, q1x, q1y, p0x, p0y), oq1 = Orientation.index(q0x, q0y, q1x, q1y, p1x, p1y);
+		if (oq0 == oq1 && oq0 != Orientation.COLLINEAR) return NO_INTERSECTION;
+
+		if (op0 == Orientation.COLLINEAR || op1 == Orientation.COLLINEAR ||
+			oq0 == Orientation.COLLINEAR || oq1 == Orientation.COLLINEAR) {
+			return TOUCH;
+		}
+
+		// proper: the exact point lies inside both x ranges, rounding must not move it out
+		double dpx = p1x - p0x, dpy = p1y - p0y;
+		double dqx = q1x - q0x, dqy = q1y - q0y;
+		double t = ((q0x - p0x)*dqy - (q0y - p0y)*dqx)/(dpx*dqy - dpy*dqx);
+		t = Math.max(0, Math.min(1, t));
+		m_x = Math.max(minX, Math.min(maxX, p0x + t*dpx));
+		m_y = p0y + t*dpy;
+		return PROPER;
+	}
+
+	/**
+	 * Returns x of the last proper intersection
+	 */
+	public double getX() {
+		return m_x;
+	}
+
+	/**
+	 * Returns y of the last proper intersection
+	 */
+	public double getY() {
+		return m_y;
+	}
+
+	/**
+	 * Checks if p lies on the x-monotone segment p0-p1
+	 */
+	public static boolean isOnSegment(double p0x, double p0y, double p1x, double p1y, double px, double py) {
+		return p0x <= px && px <= p1x && Orientation.index(p0x, p0y, p1x, p1y, px, py) == Orientation.COLLINEAR;
+	}
+}
@@ -1,118 +1,89 @@
 package mse.alg.ex2;
 
 
-import java.util.LinkedList;
+import java.util.List;
 
 /**
+ * Cursor over the vertices of an x-monotone list of chains in increasing x-order.
+ * Each step costs O(1), the list must support constant time random access.
+ *
  * Created by Simon on 07.10.2014.
  */
 public class SortHorizon {
-	private LinkedList<MonotoneChain> chains = new LinkedList<>();	// x-monotone linked list of chains
-	private boolean finished;
-	private boolean isStart;
-	private boolean isStop;
-	private boolean isInner;
-	private int inIndex;
-	private int outIndex;
-	private int stopIndex;
-
-	public SortHorizon(LinkedList<MonotoneChain> m_chains) {
-		chains = m_chains;
-		isStart = true;
-		isInner = false;
-		isStop  = false;
-		inIndex = 0;
-		outIndex = 0;
-		finished = false;
-		stopIndex = 0;
-
-		if(chains.size() == 0){
-			finished = true;
-		}
-
+	private final List<MonotoneChain> chains;	// x-monotone list of chains
+	private MonotoneChain chain;				// current chain or null if finished
+	private int chainIndex;						// index of the current chain
+	private int vertexIndex;					// index of the current vertex in the current chain
+
+	public SortHorizon(List<MonotoneChain> chains) {
+		this.chains = chains;
+		chain = chains.isEmpty() ? null : chains.get(0);
 	}
 
-	public MonotoneChain getNext(){
-
-		//Handle s Start Event
-		if(isStart){
-			//Chain with 2 Element
-			if(chains.get(outIndex).get(1).compareTo(chains.get(outIndex).getLast()) == 0){
-				isStop = true;
-				inIndex = 1;
-				stopIndex = 1;
-			}else{
-				isInner = true;
-				inIndex = 1;
-			}
-
-			isStart = false;
-			return chains.get(outIndex);
-		}
+	/**
+	 * Returns the chain of the current vertex
+	 */
+	public MonotoneChain getChain() {
+		return chain;
+	}
 
-		//Handle Inner Event
-		if(isInner){
-			//If next Event is a Stop
-			if(chains.get(outIndex).get(inIndex+1).compareTo(chains.get(outIndex).getLast()) == 0){
-				isInner = false;
-				isStop = true;
-			}
-			inIndex++;
-			return chains.get(outIndex);
-		}
+	/**
+	 * Returns the index of the current vertex in its chain
+	 */
+	public int getIndex() {
+		return vertexIndex;
+	}
 
-		//Handle Stop Event (No if needed)
-		outIndex++;
-		//Check if last Element in List
-		if(chains.size() == outIndex){
-			finished = true;
-			isStop = false;
-			stopIndex = inIndex;
-		}else{
-			isStart=true;
-			stopIndex = inIndex;
-			inIndex = 0;
+	/**
+	 * Moves the cursor to the next vertex
+	 */
+	public void next() {
+		if (++vertexIndex == chain.size()) {
+			vertexIndex = 0;
+			chain = (++chainIndex < chains.size()) ? chains.get(chainIndex) : null;
 		}
-
-		isStop = false;
-		return chains.get(outIndex-1);
-
-
 	}
 
-	public int getIndex(){
-		return inIndex;
-	}
-	public String getStatus(){
-		return "isStart:"+isStart+" -isInner:"+isInner+" -isStop:"+isStop+" -isFinished:"+finished;
+	public double getX() {
+		return chain.getX(vertexIndex);
 	}
 
-	public int getStopIndex(){
-		return stopIndex;
+	public double getY() {
+		return chain.getY(vertexIndex);
 	}
 
-	public double getX(){
-		return chains.get(outIndex).get(inIndex).x;
+	public boolean isFinished() {
+		return chain == null;
 	}
 
-	public double getY(){
-		return chains.get(outIndex).get(inIndex).y;
+	public boolean isNextStart() {
+		return vertexIndex == 0;
 	}
 
-	public boolean isFinished(){
-		return finished;
+	public boolean isNextStop() {
+		return vertexIndex == chain.size() - 1;
 	}
 
-	public boolean isNextStart(){
-		return isStart;
+	public boolean isNextInner() {
+		return !isNextStart() && !isNextStop();
 	}
 
-	public boolean isNextStop(){
-		return isStop;
+	/**
+	 * Sweep order of the current vertices of two cursors: increasing x, for the same x
+	 * inner vertices before stops before starts (see {@link Status}).
+	 * Within one horizon the vertices already are in this order.
+	 * @param s other cursor, not finished
+	 * @return true if the current vertex of this cursor has to be handled first
+	 */
+	public boolean isBefore(SortHorizon s) {
+		double x = getX(), sx = s.getX();
+		return x < sx || (x == sx && getPriority() >= s.getPriority());
 	}
 
-	public boolean isNextInner(){
-		return isInner;
+	private int getPriority() {
+		if (isNextStart()) return 1;
+		if (isNextStop()) return 2;
+		return 3;
 	}
 
-}
\ No newline at end of file
+}
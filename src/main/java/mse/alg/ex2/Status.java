@@ -1,22 +1,25 @@
 package mse.alg.ex2;
 
-import com.vividsolutions.jts.algorithm.CGAlgorithms;
-import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.Orientation;
 import mse.alg.ex2.Horizon;
 import mse.alg.ex2.MonotoneChain;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
- * Sweep line status
+ * Sweep line status. Every status has its own segment intersector, so independent
+ * merges can run in parallel. The resulting chain is collected in packed primitive
+ * arrays, which are reused for all chains of the resulting horizon.
  * @author Christoph Stamm
  *
  */
 public class Status {
 	private Horizon m_horizon;					// resulting horizon
-	private LinkedList<Coordinate> m_result;	// resulting chain
+	private double[] m_resultX, m_resultY;		// resulting chain
+	private int m_resultSize;					// number of points in the resulting chain
 	private MonotoneChain m_upper, m_lower; 	// two chains; if there is only one of them, then it is m_upper
 	private int m_upperIndex, m_lowerIndex;		// index of last handled point in chain
+	private SegmentIntersector m_intersector = new SegmentIntersector();
 	
 	/**
 	 * Create new status
@@ -25,7 +28,8 @@ public class Status {
 	public Status(Horizon h) {
 		assert h != null;
 		m_horizon = h;
-		m_result = new LinkedList<Coordinate>();
+		m_resultX = new double[16];
+		m_resultY = new double[16];
 	}
 	
 	public boolean isEmpty() {
@@ -47,47 +51,45 @@ public class Status {
 		//System.out.println("start");
 		assert m_lower == null : "status already contains two segments";
 		
-		Coordinate p = mc.get(0);
+		double px = mc.getX(0), py = mc.getY(0);
 		
 		if (isEmpty()) {
 			// first chain: start new upper 
 			m_upper = mc; m_upperIndex = 0;
-			add(p);
+			add(px, py);
 		} else {
 			// second chain (mc) starts: compute new order
-			Coordinate u0 = m_upper.get(m_upperIndex);
-			Coordinate u1 = m_upper.get(m_upperIndex + 1);
-			int orient = CGAlgorithms.orientationIndex(u0, u1, p);
+			double u0x = m_upper.getX(m_upperIndex), u0y = m_upper.getY(m_upperIndex);
+			double u1x = m_upper.getX(m_upperIndex + 1), u1y = m_upper.getY(m_upperIndex + 1);
+			int orient = Orientation.index(u0x, u0y, u1x, u1y, px, py);
 			
 			if (orient == 1) {
 				// mc starts above m_upper
-				if (p.x == u0.x) {
-					assert p.y > u0.y;
+				if (px == u0x) {
+					assert py > u0y;
 				} else {
-					assert p.x > u0.x && p.x < u1.x;
+					assert px > u0x && px < u1x;
 					// split m_upper chain at p.x
-					Coordinate ip = m_upper.splitSegment(m_upperIndex, p.x);
-					assert MonotoneChain.s_rli.isInteriorIntersection(0);
-					add(ip);
+					double y = m_upper.splitSegment(m_upperIndex, px);
+					assert !Double.isNaN(y);
+					add(px, y);
 				}
 				swap();
 				m_upper = mc; m_upperIndex = 0;
 				
-				add(p);
+				add(px, py);
 				
 			} else if (orient == 0) {
 				// mc starts on m_upper: check next vertex
-				Coordinate p1 = mc.get(1);
-				
-				orient = CGAlgorithms.orientationIndex(u0, u1, p1);
+				orient = Orientation.index(u0x, u0y, u1x, u1y, mc.getX(1), mc.getY(1));
 				if (orient == 1) {
 					// mc is above m_upper
-					if (p.x == u0.x) {
-						assert p.equals(u0);					
+					if (px == u0x) {
+						assert py == u0y;
 					} else {
-						assert p.x > u0.x && p.x < u1.x;
+						assert px > u0x && px < u1x;
 						// continue current result
-						add(p);
+						add(px, py);
 					}
 					
 					swap();
@@ -113,40 +115,32 @@ public class Status {
 		assert m_upper != null : "invalid status";
 		assert m_lower != null : "status contains one segement only";
 		
-		Coordinate u0 = m_upper.get(m_upperIndex);
-		Coordinate l0 = m_lower.get(m_lowerIndex);
-		
 		if (m_upper.size() > m_upperIndex + 1 && m_lower.size() > m_lowerIndex + 1) {
-			Coordinate u1 = m_upper.get(m_upperIndex + 1);
-			Coordinate l1 = m_lower.get(m_lowerIndex + 1);
+			double u0x = m_upper.getX(m_upperIndex), u0y = m_upper.getY(m_upperIndex);
+			double u1x = m_upper.getX(m_upperIndex + 1), u1y = m_upper.getY(m_upperIndex + 1);
+			double l0x = m_lower.getX(m_lowerIndex), l0y = m_lower.getY(m_lowerIndex);
+			double l1x = m_lower.getX(m_lowerIndex + 1), l1y = m_lower.getY(m_lowerIndex + 1);
 		
 			// check for intersection
-			MonotoneChain.s_rli.computeIntersection(u0, u1, l0, l1);
+			int intersection = m_intersector.compute(u0x, u0y, u1x, u1y, l0x, l0y, l1x, l1y);
 			
-			if (MonotoneChain.s_rli.isProper()) {
+			if (intersection == SegmentIntersector.PROPER) {
 				// handle intersection: inserting ip between l1 and l2
-				Coordinate ip = MonotoneChain.s_rli.getIntersection(0);
-				add(ip);
+				add(m_intersector.getX(), m_intersector.getY());
 				swap();
-			} else if (MonotoneChain.s_rli.isInteriorIntersection(0)) {
-				// intersection in one of the end points of lower
-				// handle this intersection point
-				add(l0);
-				
-				// check orientation of u2
-				if (CGAlgorithms.orientationIndex(l0, l1, m_upper.get(m_upperIndex + 1)) == -1) {
-					// u2 is below lower
-					swap();
-				}
-			} else if (MonotoneChain.s_rli.isInteriorIntersection(1)) { 
-				// intersection in one of the end points of upper
-				// handle this intersection point
-				add(u0);
-				
-				// check orientation of l2
-				if (CGAlgorithms.orientationIndex(u0, u1, m_lower.get(m_lowerIndex + 1)) == 1) {
-					// l2 is above upper
-					swap();
+			} else if (intersection == SegmentIntersector.TOUCH) {
+				// the segments touch in an end point or overlap: only a touching point at the
+				// current sweep position is handled, all others are handled by a later event 
+				// when the touching point becomes the start point of a segment
+				double tx = (u0x >= l0x) ? u0x : l0x;
+				double ty = (u0x >= l0x) ? u0y : l0y;
+				if (SegmentIntersector.isOnSegment(u0x, u0y, u1x, u1y, tx, ty) && 
+					SegmentIntersector.isOnSegment(l0x, l0y, l1x, l1y, tx, ty)) {
+					// compare both segments right of t: swap if lower continues above upper
+					if (Orientation.index(tx, ty, u1x, u1y, l1x, l1y) == 1) {
+						add(tx, ty);
+						swap();
+					}
 				}
 			}
 		}
@@ -164,7 +158,7 @@ public class Status {
 		if (mc == m_upper) {
 			m_upperIndex = index;
 			// continue result
-			add(m_upper.get(m_upperIndex));
+			add(m_upper.getX(m_upperIndex), m_upper.getY(m_upperIndex));
 		} else if (mc == m_lower) {
 			m_lowerIndex = index;
 		}
@@ -188,14 +182,14 @@ public class Status {
 		if (mc == m_upper) {
 			m_upperIndex = index;
 			// upper stops
-			Coordinate p = mc.get(index);
+			double px = mc.getX(index);
 			
-			add(p);
+			add(px, mc.getY(index));
 
 			swap();
 			
 			if (m_upper != null) {
-				add(m_upper.splitSegment(m_upperIndex, p.x));
+				add(px, m_upper.splitSegment(m_upperIndex, px));
 			} else {
 				finish();
 			}
@@ -210,74 +204,30 @@ public class Status {
 		int i = m_upperIndex; m_upperIndex = m_lowerIndex; m_lowerIndex = i;			
 	}
 	
-	private void add(Coordinate p) {
-		Coordinate last = (m_result.isEmpty()) ? null : m_result.getLast();
-		
-		if (last == null || p.x > last.x) {
-			m_result.add(p);
-		} else if (p.y != last.y) {
-			assert p.x == last.x;
+	private void add(double x, double y) {
+		if (m_resultSize == 0 || x > m_resultX[m_resultSize - 1]) {
+			append(x, y);
+		} else if (y != m_resultY[m_resultSize - 1]) {
+			assert x == m_resultX[m_resultSize - 1];
 			// vertical jump
 			finish();
 			
 			// start new result
-			m_result.add(p);
+			append(x, y);
 		}
 	}
 	
-	private void finish() {
-		m_horizon.add(MonotoneChain.create(m_result));
-		m_result.clear();		
-	}
-}
-
-///////////////////////////////////////////////////////////////////////////////////////////////////
-class StartEvent extends SweepLine<Status>.Event {
-	private MonotoneChain m_mc;
-	
-	protected StartEvent(SweepLine<Status> sl, double time, MonotoneChain mc) {
-		sl.super(time, 1);
-		m_mc = mc;
-	}
-
-	@Override
-	public void apply(Status s) {
-		s.start(m_mc);
-	}
-}
-
-///////////////////////////////////////////////////////////////////////////////////////////////////
-class InnerEvent extends SweepLine<Status>.Event {
-	private MonotoneChain m_mc;
-	private int m_index;
-	
-	protected InnerEvent(SweepLine<Status> sl, double time, MonotoneChain mc, int index) {
-		sl.super(time, 3);
-		m_mc = mc;
-		m_index = index;
-	}
-
-	@Override
-	public void apply(Status s) {
-		s.next(m_mc, m_index);		
+	private void append(double x, double y) {
+		if (m_resultSize == m_resultX.length) {
+			m_resultX = Arrays.copyOf(m_resultX, 2*m_resultSize);
+			m_resultY = Arrays.copyOf(m_resultY, 2*m_resultSize);
+		}
+		m_resultX[m_resultSize] = x;
+		m_resultY[m_resultSize++] = y;
 	}
-}
-
-///////////////////////////////////////////////////////////////////////////////////////////////////
-class StopEvent extends SweepLine<Status>.Event {
-	private MonotoneChain m_mc;
-	private int m_index;
 	
-	protected StopEvent(SweepLine<Status> sl, double time, MonotoneChain mc, int index) {
-		sl.super(time, 2);
-		m_mc = mc;
-		m_index = index;
-	}
-
-	@Override
-	public void apply(Status s) {
-		s.stop(m_mc, m_index);
+	private void finish() {
+		m_horizon.add(MonotoneChain.create(m_resultX, m_resultY, m_resultSize));
+		m_resultSize = 0;
 	}
 }
-
-
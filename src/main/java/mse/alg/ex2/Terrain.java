@@ -0,0 +1,158 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable triangulated terrain: packed vertex arrays and the triangles as index triples.
+ * <p>
+ * The terrain is triangulated once when it is created (implicitly if the vertices occupy all
+ * nodes of a regular grid, see {@link GridTriangles}, otherwise by a Delaunay triangulation), so the
+ * front facing triangles can be filtered for any number of viewpoints without triangulating
+ * again. A terrain can be shared by concurrent horizon computations.
+ */
+public final class Terrain {
+	private final double[] m_x, m_y, m_z;		// vertices
+	private final int[] m_triangles;			// index triples of the triangles
+	
+	private Terrain(double[] x, double[] y, double[] z, int[] triangles) {
+		m_x = x;
+		m_y = y;
+		m_z = z;
+		m_triangles = triangles;
+	}
+	
+	/**
+	 * Triangulates the terrain points
+	 * @param x x-coordinates of the terrain points
+	 * @param y y-coordinates of the terrain points
+	 * @param z heights of the terrain points
+	 * @return triangulated terrain; the arrays are copied
+	 */
+	public static Terrain of(double[] x, double[] y, double[] z) {
+		if (x.length != y.length || x.length != z.length) {
+			throw new IllegalArgumentException("different array lengths: " + x.length + ", " + y.length + ", " + z.length);
+		}
+		x = x.clone(); y = y.clone(); z = z.clone();
+		
+		TriangleBuffer buffer = new TriangleBuffer(2*x.length);
+		GridTriangles grid = GridTriangles.detect(x, y);
+		if (grid != null) {
+			grid.triangulate(buffer);
+		} else {
+			DelaunayTriangles.triangulate(x, y, buffer);
+		}
+		return new Terrain(x, y, z, buffer.toArray());
+	}
+	
+	/**
+	 * Triangulates the terrain points
+	 * @param pts terrain points
+	 * @return triangulated terrain
+	 */
+	public static Terrain of(List<Coordinate> pts) {
+		double[] x = new double[pts.size()], y = new double[x.length], z = new double[x.length];
+		for (int i = 0; i < x.length; i++) {
+			Coordinate p = pts.get(i);
+			x[i] = p.x; y[i] = p.y; z[i] = p.z;
+		}
+		return of(x, y, z);
+	}
+	
+	/**
+	 * Reads and triangulates a terrain in csv format (see {@link IO#readTerrain})
+	 * @param fileName
+	 * @return triangulated terrain
+	 * @throws IOException
+	 */
+	public static Terrain read(String fileName) throws IOException {
+		return of(IO.readTerrain(fileName));
+	}
+	
+	public int getVertexCount() {
+		return m_x.length;
+	}
+	
+	public int getTriangleCount() {
+		return m_triangles.length/3;
+	}
+	
+	/**
+	 * Passes all triangles in the order of the triangulation to the consumer
+	 * @param consumer receives the triangles as index triples
+	 */
+	public void triangles(TriangleConsumer consumer) {
+		for (int i = 0; i < m_triangles.length; i += 3) {
+			consumer.triangle(m_triangles[i], m_triangles[i + 1], m_triangles[i + 2]);
+		}
+	}
+	
+	/**
+	 * Computes the upper boundaries of the projected front facing triangles
+	 * @param viewPoint viewpoint = center of cylinder
+	 * @return monotone chains in the order of the triangles
+	 */
+	public List<MonotoneChain> computeChains(Coordinate viewPoint) {
+		ArrayList<MonotoneChain> chains = new ArrayList<>(m_x.length);
+		triangles(createFilter(viewPoint, chains));
+		return chains;
+	}
+	
+	/**
+	 * Creates a front face filter of the vertices of this terrain
+	 * @param viewPoint viewpoint = center of cylinder
+	 * @param chains list where the upper boundaries of the front facing triangles are added
+	 */
+	FrontFaceFilter createFilter(Coordinate viewPoint, List<MonotoneChain> chains) {
+		return new FrontFaceFilter(viewPoint, m_x, m_y, m_z, chains);
+	}
+	
+	double getX(int vertex) {
+		return m_x[vertex];
+	}
+	
+	double getY(int vertex) {
+		return m_y[vertex];
+	}
+	
+	double getZ(int vertex) {
+		return m_z[vertex];
+	}
+	
+	/**
+	 * Returns the index of the k-th vertex (0 <= k < 3) of a triangle
+	 */
+	int getVertex(int triangle, int k) {
+		return m_triangles[3*triangle + k];
+	}
+	
+	/**
+	 * Collects the streamed triangles in a growing array
+	 */
+	private static class TriangleBuffer implements TriangleConsumer {
+		private int[] m_indices;
+		private int m_size;
+		
+		TriangleBuffer(int capacity) {
+			m_indices = new int[3*Math.max(capacity, 1)];
+		}
+		
+		@Override
+		public void triangle(int i0, int i1, int i2) {
+			if (m_size + 3 > m_indices.length) {
+				m_indices = Arrays.copyOf(m_indices, 2*m_indices.length);
+			}
+			m_indices[m_size++] = i0;
+			m_indices[m_size++] = i1;
+			m_indices[m_size++] = i2;
+		}
+		
+		int[] toArray() {
+			return Arrays.copyOf(m_indices, m_size);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Quadtree of max-elevation tiles over the triangles of a terrain for the level of detail
+ * horizon computation.
+ * <p>
+ * Every tile knows the bounding box of the vertices of its triangles and its highest vertex,
+ * so the projection of a tile is bounded by its x-range and its maximal projected elevation.
+ * The tiles are visited from near to far and the horizon grows with every visited leaf:
+ * a tile is skipped if the horizon is nowhere below the maximal projected elevation of the tile,
+ * which doesn't change the horizon. A tile whose projection is at most coarseWidth wide
+ * contributes one horizontal chain at the projected elevation of its highest vertex instead
+ * of its triangles, which approximates the horizon.
+ * <p>
+ * The quadtree is immutable and can be shared by concurrent horizon computations.
+ */
+public final class TerrainQuadtree {
+	public static final int LEAF_SIZE = 64;				// maximal number of triangles in a leaf
+	private static final int MAX_DEPTH = 24;			// maximal depth of a leaf
+	private static final int MIN_BATCH = 1 << 10;		// minimal number of chains merged into the horizon at once
+	private static final double EPS = 1.0e-9;			// safety margin of the projected bounds
+
+	private final Terrain m_terrain;
+	private final int[] m_triangles;					// triangles ordered by tiles
+
+	// tiles: the root is tile 0, the children of a tile are consecutive
+	private final int m_size;							// number of tiles
+	private final double[] m_minX, m_minY, m_maxX, m_maxY;	// bounding box of the vertices of the triangles
+	private final int[] m_top;							// vertex of maximal elevation
+	private final int[] m_start, m_end;					// range of the triangles in m_triangles
+	private final int[] m_firstChild, m_childCount;		// children, a leaf has no children
+
+	/**
+	 * Create new quadtree
+	 * @param terrain triangulated terrain
+	 */
+	public TerrainQuadtree(Terrain terrain) {
+		m_terrain = terrain;
+		m_triangles = new int[terrain.getTriangleCount()];
+		for (int i = 0; i < m_triangles.length; i++) m_triangles[i] = i;
+
+		Builder builder = new Builder();
+		if (m_triangles.length > 0) {
+			builder.m_size = 1;
+			builder.build(0, 0, m_triangles.length, 0);
+		}
+		m_size = builder.m_size;
+		m_minX = Arrays.copyOf(builder.m_minX, m_size);
+		m_minY = Arrays.copyOf(builder.m_minY, m_size);
+		m_maxX = Arrays.copyOf(builder.m_maxX, m_size);
+		m_maxY = Arrays.copyOf(builder.m_maxY, m_size);
+		m_top = Arrays.copyOf(builder.m_top, m_size);
+		m_start = Arrays.copyOf(builder.m_start, m_size);
+		m_end = Arrays.copyOf(builder.m_end, m_size);
+		m_firstChild = Arrays.copyOf(builder.m_firstChild, m_size);
+		m_childCount = Arrays.copyOf(builder.m_childCount, m_size);
+	}
+
+	public Terrain getTerrain() {
+		return m_terrain;
+	}
+
+	/**
+	 * Returns the number of tiles
+	 */
+	public int size() {
+		return m_size;
+	}
+
+	/**
+	 * Computes the horizon of the front facing triangles of the visible tiles
+	 * @param viewPoint viewpoint = center of cylinder
+	 * @param coarseWidth maximal projected width of a tile represented by one chain; 0 for the exact horizon
+	 * @return computed horizon
+	 */
+	public Horizon computeHorizon(Coordinate viewPoint, double coarseWidth) {
+		final double vx = viewPoint.x, vy = viewPoint.y, vz = viewPoint.z;
+		Horizon horizon = new Horizon();
+		if (m_size == 0) return horizon;
+
+		List<MonotoneChain> chains = new ArrayList<>();
+		FrontFaceFilter filter = m_terrain.createFilter(viewPoint, chains);
+
+		// tiles in the order of increasing distance to the viewpoint
+		double[] dist = new double[m_size];
+		PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> Double.compare(dist[a], dist[b]));
+		dist[0] = minDistance(0, vx, vy);
+		queue.add(0);
+
+		while (!queue.isEmpty()) {
+			int tile = queue.poll();
+			if (chains.size() >= Math.max(MIN_BATCH, horizon.size())) {
+				horizon = merge(horizon, chains);
+			}
+
+			if (!(m_minY[tile] <= vy && vy <= m_maxY[tile] && vx <= m_maxX[tile])) {
+				// the bounding box neither contains the viewpoint nor crosses the cut of the projection at +-pi:
+				// its projected x-range is spanned by the corners
+				double a = angle(vx, vy, m_minX[tile], m_minY[tile]), b = angle(vx, vy, m_maxX[tile], m_minY[tile]);
+				double c = angle(vx, vy, m_minX[tile], m_maxY[tile]), d = angle(vx, vy, m_maxX[tile], m_maxY[tile]);
+				double x0 = Math.min(Math.min(a, b), Math.min(c, d)) - EPS;
+				double x1 = Math.max(Math.max(a, b), Math.max(c, d)) + EPS;
+
+				// maximal projected elevation: highest vertex at the nearest (above the viewpoint)
+				// or farthest (below the viewpoint) position in the bounding box
+				int top = m_top[tile];
+				double dz = m_terrain.getZ(top) - vz;
+				double maxY = MathUtil.Y_SCALE*dz/((dz >= 0) ? dist[tile] : maxDistance(tile, vx, vy));
+				maxY += Math.abs(maxY)*EPS;
+
+				if (horizon.getMinY(x0, x1) >= maxY) continue;	// tile is hidden
+
+				if (x1 - x0 <= coarseWidth) {
+					// coarse chain at the projected elevation of the highest vertex
+					double dx = vx - m_terrain.getX(top), dy = vy - m_terrain.getY(top);
+					double y = MathUtil.Y_SCALE*dz/Math.sqrt(dx*dx + dy*dy);
+					chains.add(new MonotoneChain(new Coordinate(x0, y), new Coordinate(x1, y)));
+					continue;
+				}
+			}
+
+			if (m_childCount[tile] == 0) {
+				for (int i = m_start[tile]; i < m_end[tile]; i++) {
+					int t = m_triangles[i];
+					filter.triangle(m_terrain.getVertex(t, 0), m_terrain.getVertex(t, 1), m_terrain.getVertex(t, 2));
+				}
+			} else {
+				for (int child = m_firstChild[tile]; child < m_firstChild[tile] + m_childCount[tile]; child++) {
+					dist[child] = minDistance(child, vx, vy);
+					queue.add(child);
+				}
+			}
+		}
+		return merge(horizon, chains);
+	}
+
+	private static Horizon merge(Horizon horizon, List<MonotoneChain> chains) {
+		if (chains.isEmpty()) return horizon;
+		Horizon h = new HorizonAlgorithm().computeHorizon(chains);
+		chains.clear();
+		return horizon.isEmpty() ? h : horizon.merge(h);
+	}
+
+	/**
+	 * Projected x of a point (see {@link MathUtil#cylindricalProjection})
+	 */
+	private static double angle(double vx, double vy, double x, double y) {
+		return Math.atan2(vy - y, vx - x)*MathUtil.X_SCALE;
+	}
+
+	/**
+	 * Distance of the viewpoint to the bounding box of a tile, 0 if the viewpoint is inside
+	 */
+	private double minDistance(int tile, double vx, double vy) {
+		double dx = Math.max(0, Math.max(m_minX[tile] - vx, vx - m_maxX[tile]));
+		double dy = Math.max(0, Math.max(m_minY[tile] - vy, vy - m_maxY[tile]));
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * Distance of the viewpoint to the farthest corner of the bounding box of a tile
+	 */
+	private double maxDistance(int tile, double vx, double vy) {
+		double dx = Math.max(vx - m_minX[tile], m_maxX[tile] - vx);
+		double dy = Math.max(vy - m_minY[tile], m_maxY[tile] - vy);
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * Recursive subdivision at the center of the bounding box by the centroids of the triangles
+	 */
+	private class Builder {
+		private int m_size;
+		private double[] m_minX = new double[16], m_minY = new double[16], m_maxX = new double[16], m_maxY = new double[16];
+		private int[] m_top = new int[16], m_start = new int[16], m_end = new int[16];
+		private int[] m_firstChild = new int[16], m_childCount = new int[16];
+
+		void build(int tile, int start, int end, int depth) {
+			double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			int top = m_terrain.getVertex(m_triangles[start], 0);
+			for (int i = start; i < end; i++) {
+				for (int k = 0; k < 3; k++) {
+					int v = m_terrain.getVertex(m_triangles[i], k);
+					double x = m_terrain.getX(v), y = m_terrain.getY(v);
+					minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+					minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+					if (m_terrain.getZ(v) > m_terrain.getZ(top)) top = v;
+				}
+			}
+			m_minX[tile] = minX; m_minY[tile] = minY;
+			m_maxX[tile] = maxX; m_maxY[tile] = maxY;
+			m_top[tile] = top;
+			m_start[tile] = start;
+			m_end[tile] = end;
+			if (end - start <= LEAF_SIZE || depth == MAX_DEPTH) return;
+
+			// quadrants [start, s1), [s1, s2), [s2, s3), [s3, end)
+			double midX = (minX + maxX)/2, midY = (minY + maxY)/2;
+			int s2 = partition(start, end, true, midX);
+			int s1 = partition(start, s2, false, midY);
+			int s3 = partition(s2, end, false, midY);
+			int[] bounds = { start, s1, s2, s3, end };
+
+			int children = 0;
+			for (int q = 0; q < 4; q++) {
+				if (bounds[q] < bounds[q + 1]) children++;
+			}
+			int first = m_size;
+			m_size += children;
+			ensureCapacity(m_size);
+			m_firstChild[tile] = first;
+			m_childCount[tile] = children;
+
+			for (int q = 0, child = first; q < 4; q++) {
+				if (bounds[q] < bounds[q + 1]) {
+					build(child++, bounds[q], bounds[q + 1], depth + 1);
+				}
+			}
+		}
+
+		/**
+		 * Moves the triangles with a centroid below mid to the front
+		 * @return start of the triangles with a centroid at or above mid
+		 */
+		private int partition(int start, int end, boolean byX, double mid) {
+			int i = start;
+			for (int j = start; j < end; j++) {
+				int t = m_triangles[j];
+				double c = 0;
+				for (int k = 0; k < 3; k++) {
+					int v = m_terrain.getVertex(t, k);
+					c += byX ? m_terrain.getX(v) : m_terrain.getY(v);
+				}
+				if (c/3 < mid) {
+					m_triangles[j] = m_triangles[i];
+					m_triangles[i++] = t;
+				}
+			}
+			return i;
+		}
+
+		private void ensureCapacity(int size) {
+			if (size > m_minX.length) {
+				int n = Math.max(size, 2*m_minX.length);
+				m_minX = Arrays.copyOf(m_minX, n); m_minY = Arrays.copyOf(m_minY, n);
+				m_maxX = Arrays.copyOf(m_maxX, n); m_maxY = Arrays.copyOf(m_maxY, n);
+				m_top = Arrays.copyOf(m_top, n);
+				m_start = Arrays.copyOf(m_start, n); m_end = Arrays.copyOf(m_end, n);
+				m_firstChild = Arrays.copyOf(m_firstChild, n); m_childCount = Arrays.copyOf(m_childCount, n);
+			}
+		}
+	}
+}
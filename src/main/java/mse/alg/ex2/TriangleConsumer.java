@@ -0,0 +1,12 @@
+package mse.alg.ex2;
+
+/**
+ * Stage of the triangle stream: receives the triangles of a terrain one by one as
+ * index triples into a shared vertex array.
+ */
+public interface TriangleConsumer {
+	/**
+	 * Handles the triangle of the vertices i0, i1, i2 (in the orientation of the triangulation)
+	 */
+	void triangle(int i0, int i1, int i2);
+}
@@ -0,0 +1,432 @@
+package mse.alg.ex3.JTS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Convex hull of a 3D point set (quickhull, Barber, Dobkin, Huhdanpaa).
+ * <p>
+ * Starts with a tetrahedron of extreme points. Every point outside the current hull is kept in
+ * the conflict list (outside set) of exactly one face. A face with a non-empty conflict list is
+ * expanded by its farthest point: all faces visible from that point are removed, the horizon
+ * is connected to the point and the conflict lists of the removed faces are distributed on the
+ * new faces. Points inside the hull are dropped as soon as no new face sees them, which gives
+ * an expected running time of O(n log n).
+ * <p>
+ * Points closer than a tolerance (relative to the extent of the input) to the plane of a face
+ * count as inside. The resulting faces are triangles; adjacent faces may be coplanar.
+ * The vertices are the input instances, e.g. {@link MultiCoordinate3D} with their counts.
+ */
+public class ConvexHull3D {
+	private final Coordinate[] points;
+	private final double[] xs, ys, zs;
+	private double tolerance;
+
+	private Coordinate[] vertices;
+	private int[][] faces;
+
+	/**
+	 * Creates the convex hull of the given points.
+	 *
+	 * @param points at least 4 points which are not coplanar
+	 * @throws IllegalArgumentException if the points don't span a volume
+	 */
+	public ConvexHull3D(List<? extends Coordinate> points) {
+		this(points.toArray(new Coordinate[points.size()]));
+	}
+
+	/**
+	 * Creates the convex hull of the given points.
+	 *
+	 * @param points at least 4 points which are not coplanar
+	 * @throws IllegalArgumentException if the points don't span a volume
+	 */
+	public ConvexHull3D(Coordinate[] points) {
+		this.points = points;
+		final int n = points.length;
+		xs = new double[n];
+		ys = new double[n];
+		zs = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = points[i].x;
+			ys[i] = points[i].y;
+			zs[i] = points[i].z;
+		}
+		build();
+	}
+
+	/**
+	 * Returns the hull vertices
+	 */
+	public Coordinate[] getVertices() {
+		return vertices.clone();
+	}
+
+	/**
+	 * Returns the triangular faces as index triples into {@link #getVertices()}.
+	 * The vertices of a face are in counter clockwise order as seen from outside.
+	 * <p>
+	 * Coplanar faces aren't merged. For nearly coplanar input, two neighbouring faces can
+	 * therefore meet at a slightly non-convex edge, and input points can lie more than
+	 * {@link #getTolerance()} outside the plane of such a face.
+	 */
+	public int[][] getFaces() {
+		int[][] copy = new int[faces.length][];
+		for (int i = 0; i < faces.length; i++) {
+			copy[i] = faces[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the distance below which a point counts as lying on a face
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Returns the enclosed volume
+	 */
+	public double getVolume() {
+		// sum of the signed tetrahedra (origin, a, b, c)
+		double volume = 0;
+		for (int[] f : faces) {
+			Coordinate a = vertices[f[0]], b = vertices[f[1]], c = vertices[f[2]];
+			volume += a.x*(b.y*c.z - b.z*c.y) - a.y*(b.x*c.z - b.z*c.x) + a.z*(b.x*c.y - b.y*c.x);
+		}
+		return volume/6;
+	}
+
+	private void build() {
+		final int n = points.length;
+		double maxAbs = 0;
+		for (int i = 0; i < n; i++) {
+			maxAbs = Math.max(maxAbs, Math.abs(xs[i]) + Math.abs(ys[i]) + Math.abs(zs[i]));
+		}
+		tolerance = 3*Math.ulp(1.0)*maxAbs;
+
+		List<Face> created = createSimplex();
+		List<Face> allFaces = new ArrayList<>(created);
+
+		// initial conflict lists: the face which sees the point best
+		for (int i = 0; i < n; i++) {
+			Face best = null;
+			double bestDist = tolerance;
+			for (Face f : created) {
+				double d = f.distance(i);
+				if (d > bestDist) {
+					bestDist = d;
+					best = f;
+				}
+			}
+			if (best != null) best.outside.add(i);
+		}
+
+		Deque<Face> pending = new ArrayDeque<>(created);
+		List<HalfEdge> horizon = new ArrayList<>();
+		List<Face> visible = new ArrayList<>();
+		List<Face> newFaces = new ArrayList<>();
+
+		while (!pending.isEmpty()) {
+			Face face = pending.pop();
+			if (face.deleted || face.outside.size == 0) continue;
+
+			int eye = face.farthest();
+			horizon.clear();
+			visible.clear();
+			computeHorizon(eye, face, horizon, visible);
+
+			// cone of new faces from the horizon to the eye
+			newFaces.clear();
+			for (HalfEdge h : horizon) {
+				Face f = new Face(h.tail(), h.head, eye);
+				f.edge.setOpposite(h.opposite);
+				newFaces.add(f);
+			}
+			for (int k = 0; k < newFaces.size(); k++) {
+				Face f = newFaces.get(k);
+				Face g = newFaces.get((k + 1) % newFaces.size());
+				f.edge.next.setOpposite(g.edge.prev);
+			}
+			allFaces.addAll(newFaces);
+
+			// distribute the conflict lists of the removed faces
+			for (Face v : visible) {
+				IntList list = v.outside;
+				for (int k = 0; k < list.size; k++) {
+					int p = list.data[k];
+					if (p == eye) continue;
+					for (Face f : newFaces) {
+						if (f.distance(p) > tolerance) {
+							f.outside.add(p);
+							break;
+						}
+					}
+				}
+				v.outside = null;
+			}
+			for (Face f : newFaces) {
+				if (f.outside.size > 0) pending.push(f);
+			}
+		}
+
+		collectResult(allFaces);
+	}
+
+	/**
+	 * Finds the faces visible from the eye by a depth first search starting at face.
+	 * The horizon edges are collected in counter clockwise order (seen from the eye);
+	 * they belong to the visible faces, their opposite faces remain.
+	 * <p>
+	 * If the eye is collinear with an edge, the new face of the cone would have no area and
+	 * no normal (and would drop its conflict points). The opposite face is coplanar with the eye
+	 * in this case and is removed as well, so the cone is built around it.
+	 */
+	private void computeHorizon(int eye, Face face, List<HalfEdge> horizon, List<Face> visible) {
+		Deque<Frame> stack = new ArrayDeque<>();
+		face.deleted = true;
+		visible.add(face);
+		stack.push(new Frame(face.edge, 3));
+
+		while (!stack.isEmpty()) {
+			Frame frame = stack.peek();
+			if (frame.remaining == 0) {
+				stack.pop();
+				continue;
+			}
+			HalfEdge e = frame.edge;
+			frame.edge = e.next;
+			frame.remaining--;
+
+			Face opp = e.opposite.face;
+			if (opp.deleted) continue;
+			if (opp.distance(eye) > tolerance || isCollinear(e.tail(), e.head, eye)) {
+				opp.deleted = true;
+				visible.add(opp);
+				// continue on the opposite face after the edge we came from
+				stack.push(new Frame(e.opposite.next, 2));
+			} else {
+				horizon.add(e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the initial tetrahedron of four extreme points
+	 * @return the four faces
+	 */
+	private List<Face> createSimplex() {
+		final int n = points.length;
+		if (n < 4) {
+			throw new IllegalArgumentException("at least 4 points required: " + n);
+		}
+
+		// lexicographic extremes are hull vertices
+		int v0 = 0, v1 = 0;
+		for (int i = 1; i < n; i++) {
+			if (less(i, v0)) v0 = i;
+			if (less(v1, i)) v1 = i;
+		}
+		double ux = xs[v1] - xs[v0], uy = ys[v1] - ys[v0], uz = zs[v1] - zs[v0];
+		double len = Math.sqrt(ux*ux + uy*uy + uz*uz);
+		if (len <= tolerance) {
+			throw new IllegalArgumentException("points are coincident");
+		}
+
+		// farthest from the line v0-v1
+		int v2 = -1;
+		double maxDist = tolerance;
+		for (int i = 0; i < n; i++) {
+			double dx = xs[i] - xs[v0], dy = ys[i] - ys[v0], dz = zs[i] - zs[v0];
+			double cx = uy*dz - uz*dy, cy = uz*dx - ux*dz, cz = ux*dy - uy*dx;
+			double d = Math.sqrt(cx*cx + cy*cy + cz*cz)/len;
+			if (d > maxDist || (v2 >= 0 && d == maxDist && less(i, v2))) {
+				maxDist = d;
+				v2 = i;
+			}
+		}
+		if (v2 < 0) {
+			throw new IllegalArgumentException("points are collinear");
+		}
+
+		// farthest from the plane v0, v1, v2
+		Face base = new Face(v0, v1, v2);
+		int v3 = -1;
+		maxDist = tolerance;
+		for (int i = 0; i < n; i++) {
+			double d = Math.abs(base.distance(i));
+			if (d > maxDist || (v3 >= 0 && d == maxDist && less(i, v3))) {
+				maxDist = d;
+				v3 = i;
+			}
+		}
+		if (v3 < 0) {
+			throw new IllegalArgumentException("points are coplanar");
+		}
+
+		// orient the base face away from v3
+		if (base.distance(v3) > 0) {
+			base = new Face(v0, v2, v1);
+		}
+		HalfEdge e0 = base.edge, e1 = e0.next, e2 = e1.next;
+		List<Face> faces = new ArrayList<>(4);
+		faces.add(base);
+		for (HalfEdge e : new HalfEdge[] { e0, e1, e2 }) {
+			Face side = new Face(e.head, e.tail(), v3);
+			side.edge.setOpposite(e);
+			faces.add(side);
+		}
+		// link the side faces
+		for (int k = 1; k <= 3; k++) {
+			Face f = faces.get(k);
+			Face g = faces.get(k % 3 + 1);
+			// f: (head, tail, v3) of edge k-1; g continues at the tail of edge k-1
+			g.edge.next.setOpposite(f.edge.prev);
+		}
+		return faces;
+	}
+
+	/**
+	 * Returns true if the distance of point c to the line through a and b is within the tolerance
+	 */
+	private boolean isCollinear(int a, int b, int c) {
+		double ux = xs[b] - xs[a], uy = ys[b] - ys[a], uz = zs[b] - zs[a];
+		double vx = xs[c] - xs[a], vy = ys[c] - ys[a], vz = zs[c] - zs[a];
+		double x = uy*vz - uz*vy, y = uz*vx - ux*vz, z = ux*vy - uy*vx;
+		return Math.sqrt(x*x + y*y + z*z) <= tolerance*Math.sqrt(ux*ux + uy*uy + uz*uz);
+	}
+
+	private boolean less(int a, int b) {
+		if (xs[a] != xs[b]) return xs[a] < xs[b];
+		if (ys[a] != ys[b]) return ys[a] < ys[b];
+		return zs[a] < zs[b];
+	}
+
+	private void collectResult(List<Face> allFaces) {
+		int[] index = new int[points.length];
+		Arrays.fill(index, -1);
+		List<Coordinate> verts = new ArrayList<>();
+		List<int[]> tris = new ArrayList<>();
+
+		for (Face f : allFaces) {
+			if (f.deleted) continue;
+			int[] tri = { f.edge.tail(), f.edge.head, f.edge.next.head };
+			for (int k = 0; k < 3; k++) {
+				int p = tri[k];
+				if (index[p] < 0) {
+					index[p] = verts.size();
+					verts.add(points[p]);
+				}
+				tri[k] = index[p];
+			}
+			tris.add(tri);
+		}
+		vertices = verts.toArray(new Coordinate[verts.size()]);
+		faces = tris.toArray(new int[tris.size()][]);
+	}
+
+	/**
+	 * Triangle with outward normal and conflict list
+	 */
+	private class Face {
+		final HalfEdge edge;
+		final double nx, ny, nz, offset;     // plane n.p = offset, |n| = 1
+		IntList outside = new IntList();
+		boolean deleted;
+
+		/**
+		 * Triangle (a, b, c) in counter clockwise order seen from outside
+		 */
+		Face(int a, int b, int c) {
+			HalfEdge ab = new HalfEdge(b, this);
+			HalfEdge bc = new HalfEdge(c, this);
+			HalfEdge ca = new HalfEdge(a, this);
+			ab.next = bc; bc.next = ca; ca.next = ab;
+			ab.prev = ca; bc.prev = ab; ca.prev = bc;
+			edge = ab;
+
+			double ux = xs[b] - xs[a], uy = ys[b] - ys[a], uz = zs[b] - zs[a];
+			double vx = xs[c] - xs[a], vy = ys[c] - ys[a], vz = zs[c] - zs[a];
+			double x = uy*vz - uz*vy, y = uz*vx - ux*vz, z = ux*vy - uy*vx;
+			double len = Math.sqrt(x*x + y*y + z*z);
+			nx = x/len;
+			ny = y/len;
+			nz = z/len;
+			offset = (nx*(xs[a] + xs[b] + xs[c]) + ny*(ys[a] + ys[b] + ys[c]) + nz*(zs[a] + zs[b] + zs[c]))/3;
+		}
+
+		/**
+		 * Signed distance of point i: positive if outside
+		 */
+		double distance(int i) {
+			return nx*xs[i] + ny*ys[i] + nz*zs[i] - offset;
+		}
+
+		/**
+		 * Farthest point of the conflict list, ties are broken lexicographically
+		 */
+		int farthest() {
+			int best = outside.data[0];
+			double bestDist = distance(best);
+			for (int k = 1; k < outside.size; k++) {
+				int p = outside.data[k];
+				double d = distance(p);
+				if (d > bestDist || (d == bestDist && less(p, best))) {
+					bestDist = d;
+					best = p;
+				}
+			}
+			return best;
+		}
+	}
+
+	private static class HalfEdge {
+		final int head;
+		final Face face;
+		HalfEdge next, prev, opposite;
+
+		HalfEdge(int head, Face face) {
+			this.head = head;
+			this.face = face;
+		}
+
+		int tail() {
+			return prev.head;
+		}
+
+		void setOpposite(HalfEdge e) {
+			opposite = e;
+			e.opposite = this;
+		}
+	}
+
+	/**
+	 * Face of the depth first search: next edge to visit and number of remaining edges
+	 */
+	private static class Frame {
+		HalfEdge edge;
+		int remaining;
+
+		Frame(HalfEdge edge, int remaining) {
+			this.edge = edge;
+			this.remaining = remaining;
+		}
+	}
+
+	/**
+	 * Growable list of point indices
+	 */
+	private static class IntList {
+		int[] data = new int[4];
+		int size;
+
+		void add(int i) {
+			if (size == data.length) data = Arrays.copyOf(data, 2*size);
+			data[size++] = i;
+		}
+	}
+}
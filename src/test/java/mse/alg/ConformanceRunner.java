@@ -0,0 +1,198 @@
+package mse.alg;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Runs an algorithm on a list of {@link XmlTestCase}s and records the outcome and the time of every case.
+ * <p>
+ * The cases are distributed on the common fork join pool. With repetitions, each case is
+ * executed several times and the minimal time is reported. Optional warm up rounds run all
+ * cases untimed before the measurement.
+ */
+public class ConformanceRunner {
+    public enum Status { OK, FAILED, EXCEPTION }
+
+    private boolean parallel = true;
+    private int repetitions = 1;
+    private int warmupRounds;
+
+    /**
+     * Enables the parallel execution of the cases.
+     *
+     * @param parallel true to run the cases in parallel (default true)
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the number of executions per case.
+     *
+     * @param repetitions at least 1 (default 1)
+     */
+    public void setRepetitions(int repetitions) {
+        if (repetitions < 1) {
+            throw new IllegalArgumentException("repetitions must be at least 1: " + repetitions);
+        }
+        this.repetitions = repetitions;
+    }
+
+    /**
+     * Sets the number of untimed passes over all cases before the measurement (JIT warm up).
+     *
+     * @param warmupRounds at least 0 (default 0)
+     */
+    public void setWarmupRounds(int warmupRounds) {
+        if (warmupRounds < 0) {
+            throw new IllegalArgumentException("warm up rounds must not be negative: " + warmupRounds);
+        }
+        this.warmupRounds = warmupRounds;
+    }
+
+    /**
+     * Runs an algorithm on all cases. Only the algorithm call is timed: the input is
+     * extracted before and the result is verified afterwards.
+     * @param input extracts the input of the algorithm from a case, e.g. {@link XmlTestCase#getA()}
+     * @param algorithm algorithm under test
+     * @param verify returns true if the result matches the expected result of the case
+     * @return results in the order of the cases
+     */
+    public <I, R> Report run(List<XmlTestCase> cases, Function<XmlTestCase, I> input, Function<I, R> algorithm,
+                             BiPredicate<XmlTestCase, R> verify) {
+        for (int w = 0; w < warmupRounds; w++) {
+            for (XmlTestCase c : cases) {
+                try {
+                    algorithm.apply(input.apply(c));
+                } catch (RuntimeException | AssertionError e) {
+                    // reported by the measurement
+                }
+            }
+        }
+
+        Result[] results = new Result[cases.size()];
+        IntStream range = IntStream.range(0, results.length);
+        if (parallel) {
+            range = range.parallel();
+        }
+        range.forEach(i -> results[i] = runCase(cases.get(i), input, algorithm, verify));
+        return new Report(Arrays.asList(results));
+    }
+
+    private <I, R> Result runCase(XmlTestCase testCase, Function<XmlTestCase, I> input, Function<I, R> algorithm,
+                                  BiPredicate<XmlTestCase, R> verify) {
+        long best = Long.MAX_VALUE;
+        Status status = Status.OK;
+        String message = null;
+
+        try {
+            I in = input.apply(testCase);
+            for (int r = 0; r < repetitions && status == Status.OK; r++) {
+                long start = System.nanoTime();
+                R result = algorithm.apply(in);
+                best = Math.min(best, System.nanoTime() - start);
+
+                if (!verify.test(testCase, result)) {
+                    status = Status.FAILED;
+                }
+            }
+        } catch (RuntimeException | AssertionError e) {
+            status = Status.EXCEPTION;
+            message = e.toString();
+        }
+        return new Result(testCase, status, message, (best == Long.MAX_VALUE) ? 0 : best);
+    }
+
+    /**
+     * Outcome of one case
+     */
+    public static final class Result {
+        public final XmlTestCase testCase;
+        public final Status status;
+        public final String message;
+        public final long nanos;
+
+        Result(XmlTestCase testCase, Status status, String message, long nanos) {
+            this.testCase = testCase;
+            this.status = status;
+            this.message = message;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Outcomes of all cases
+     */
+    public static final class Report {
+        private final List<Result> results;
+
+        Report(List<Result> results) {
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+
+        /**
+         * Returns the failed cases and the cases with an exception
+         */
+        public List<Result> getFailures() {
+            List<Result> failures = new ArrayList<>();
+            for (Result r : results) {
+                if (r.status != Status.OK) failures.add(r);
+            }
+            return failures;
+        }
+
+        /**
+         * Returns the histogram of the times of the successful cases
+         */
+        public LatencyHistogram getHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (Result r : results) {
+                if (r.status == Status.OK) histogram.record(r.nanos);
+            }
+            return histogram;
+        }
+
+        public int count(Status status) {
+            int n = 0;
+            for (Result r : results) {
+                if (r.status == status) n++;
+            }
+            return n;
+        }
+
+        /**
+         * Prints one line per case (file, case, operation, status, time) and a summary
+         */
+        public void print(PrintStream out, String title) {
+            long total = 0;
+            out.println(title);
+            out.printf("%-50s %8s %-16s %-9s %12s%n", "file", "case", "op", "status", "time [us]");
+            for (Result r : results) {
+                XmlTestCase c = r.testCase;
+                out.printf("%-50s %8s %-16s %-9s %12.1f%n", shorten(c.getFile()), c.getCaseNo() + "." + c.getTestNo(),
+                        c.getOp(), r.status, r.nanos/1e3);
+                if (r.message != null) {
+                    out.println("    " + r.message);
+                }
+                total += r.nanos;
+            }
+            out.printf("%d cases (ok: %d, failed: %d, exceptions: %d), %.1f ms%n", results.size(),
+                    count(Status.OK), count(Status.FAILED), count(Status.EXCEPTION), total/1e6);
+            out.println(getHistogram());
+        }
+
+        private static String shorten(String file) {
+            return (file.length() <= 50) ? file : "..." + file.substring(file.length() - 47);
+        }
+    }
+}
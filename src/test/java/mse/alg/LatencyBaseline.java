@@ -0,0 +1,126 @@
+package mse.alg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Regression gate on the p99 latency against a baseline file of the local machine.
+ * <p>
+ * The baseline is a properties file "&lt;key&gt;.p99 = nanoseconds". A check fails if the current
+ * p99 exceeds the baseline by more than the tolerance. Keys without baseline pass. The default
+ * tolerance is wide because the cases take microseconds and vary between runs; tighten it on
+ * a quiet machine.
+ * <p>
+ * Wall-clock gates depend on the machine, so they are opt-in: without {@value #GATE_PROPERTY}=true
+ * (or the Maven profile "perf") every check passes and the measurements are only reported.
+ * The baseline isn't checked in either. The first gated run finds no baseline file, records
+ * the current values and passes; later runs on the same machine are checked against them.
+ * "mvn clean" deletes the default file, so the next gated run records a new baseline.
+ * <p>
+ * System properties:
+ * <ul>
+ * <li>{@value #GATE_PROPERTY}: if true, the p99 values and the scaling exponents are checked (default false)</li>
+ * <li>latency.baseline: path of the baseline file (default {@value #DEFAULT_FILE})</li>
+ * <li>latency.tolerance: allowed regression in percent (default {@value #DEFAULT_TOLERANCE})</li>
+ * <li>latency.update: if true, the current values are written to the baseline file instead of being checked
+ * (default true if the gates are enabled and the file doesn't exist)</li>
+ * </ul>
+ */
+public class LatencyBaseline {
+    public static final String DEFAULT_FILE = "target/latency-baseline.properties";
+    public static final double DEFAULT_TOLERANCE = 100;
+    public static final String GATE_PROPERTY = "perf.gates";
+
+    private final Path file;
+    private final double tolerance;
+    private final boolean update;
+    private final boolean enabled;
+    private final Properties baseline = new Properties();
+
+    /**
+     * Reads the baseline file given by the system properties
+     */
+    public LatencyBaseline() throws IOException {
+        this(Paths.get(System.getProperty("latency.baseline", DEFAULT_FILE)),
+                Double.parseDouble(System.getProperty("latency.tolerance", String.valueOf(DEFAULT_TOLERANCE))),
+                Boolean.getBoolean("latency.update"), isGateEnabled());
+    }
+
+    /**
+     * @param file baseline file, may not exist yet
+     * @param tolerance allowed regression in percent
+     * @param update write the current values instead of checking them
+     * @param enabled check the values, otherwise every check passes. If the file doesn't exist,
+     *                the values are written as in update mode.
+     */
+    public LatencyBaseline(Path file, double tolerance, boolean update, boolean enabled) throws IOException {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance must not be negative: " + tolerance);
+        }
+        this.file = file;
+        this.tolerance = tolerance;
+        this.update = update || (enabled && !Files.exists(file));
+        this.enabled = enabled;
+        if (Files.exists(file)) {
+            try (InputStream is = Files.newInputStream(file)) {
+                baseline.load(is);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the wall-clock gates are enabled by the system property {@value #GATE_PROPERTY}
+     */
+    public static boolean isGateEnabled() {
+        return Boolean.getBoolean(GATE_PROPERTY);
+    }
+
+    /**
+     * Checks (or in update mode stores) the p99 of a histogram
+     * @param key name of the measurement, e.g. "convexhull.ConvexHull2"
+     * @return null if ok or not enabled, otherwise a description of the regression
+     */
+    public String check(String key, LatencyHistogram histogram) {
+        long p99 = histogram.getValueAtPercentile(99);
+        if (update) {
+            baseline.setProperty(key + ".p99", String.valueOf(p99));
+            return null;
+        }
+
+        String value = baseline.getProperty(key + ".p99");
+        if (!enabled || value == null) {
+            return null;
+        }
+        long limit = (long)(Long.parseLong(value.trim())*(1 + tolerance/100));
+        if (p99 > limit) {
+            return String.format("%s: p99 %.1fus exceeds baseline %.1fus + %.0f%%", key, p99/1e3, Long.parseLong(value.trim())/1e3, tolerance);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the baseline file in update mode
+     */
+    public void save() throws IOException {
+        if (!update) return;
+        // sorted and without time stamp: stable diffs
+        List<String> lines = new ArrayList<>();
+        lines.add("# p99 latency baselines in nanoseconds, see LatencyBaseline");
+        for (String key : new TreeSet<>(baseline.stringPropertyNames())) {
+            lines.add(key + "=" + baseline.getProperty(key));
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Files.write(file, lines, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,87 @@
+package mse.alg;
+
+/**
+ * Histogram of latencies in nanoseconds with logarithmic buckets (HDR histogram style).
+ * <p>
+ * Values below 2^(SUB_BITS+1) are counted exactly, larger values in buckets with a relative
+ * width of at most 2^-SUB_BITS (below 1%). Recording is O(1) and allocation free.
+ * Not thread safe.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+
+    private final long[] counts = new long[64 << SUB_BITS];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    /**
+     * Records a latency
+     * @param nanos non negative value
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("negative latency: " + nanos);
+        }
+        counts[index(nanos)]++;
+        count++;
+        sum += nanos;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return (count == 0) ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return (count == 0) ? 0 : sum/count;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values lies
+     * (upper bound of its bucket, at most the maximum).
+     * @param percentile in [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long)Math.ceil(percentile/100*count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValue(i));
+            }
+        }
+        return max;
+    }
+
+    private static int index(long v) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(v) - SUB_BITS);
+        return (shift << SUB_BITS) + (int)(v >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < (2 << SUB_BITS)) return index;
+
+        int shift = (index >>> SUB_BITS) - 1;
+        long sub = index - ((long)shift << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fus p99=%.1fus max=%.1fus", count,
+                getValueAtPercentile(50)/1e3, getValueAtPercentile(99)/1e3, max/1e3);
+    }
+}
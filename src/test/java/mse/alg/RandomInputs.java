@@ -0,0 +1,153 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import mse.alg.ex2.MonotoneChain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator of large and adversarial inputs for the hull and horizon algorithms.
+ * The same seed always produces the same input, so a failing case can be reproduced
+ * from the seed printed by the test.
+ */
+public class RandomInputs {
+    /**
+     * Point sets for the convex hull
+     */
+    public enum PointShape {
+        /** uniform in the unit square */
+        UNIFORM,
+        /** all points on a circle: every point is a hull vertex */
+        ON_CIRCLE,
+        /** all points on one line with an irrational slope */
+        COLLINEAR,
+        /** few distinct points (small integer grid), each repeated many times in random order */
+        DUPLICATES,
+        /** tight clusters around the corners of a huge square, coordinates close to 1e15 */
+        EXTREME_CLUSTERS
+    }
+
+    /**
+     * Chain sets for the horizon
+     */
+    public enum ChainShape {
+        /** short chains (2 or 3 points) at random positions */
+        RANDOM,
+        /** all vertices on an integer grid: many events at the same x, touching and overlapping chains */
+        GRID,
+        /** all chains on the same line */
+        COLLINEAR,
+        /** long chains crossing each other many times */
+        CROSSING
+    }
+
+    private final long seed;
+    private final Random random;
+
+    public RandomInputs(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates n points of the given shape
+     */
+    public Coordinate[] points(PointShape shape, int n) {
+        Coordinate[] pts = new Coordinate[n];
+        switch (shape) {
+            case UNIFORM:
+                for (int i = 0; i < n; i++) {
+                    pts[i] = new Coordinate(random.nextDouble(), random.nextDouble());
+                }
+                break;
+            case ON_CIRCLE:
+                for (int i = 0; i < n; i++) {
+                    double a = 2*Math.PI*random.nextDouble();
+                    pts[i] = new Coordinate(Math.cos(a), Math.sin(a));
+                }
+                break;
+            case COLLINEAR:
+                for (int i = 0; i < n; i++) {
+                    double t = random.nextDouble();
+                    pts[i] = new Coordinate(t, Math.sqrt(2)*t);
+                }
+                break;
+            case DUPLICATES:
+                int side = 1 + random.nextInt(4);
+                for (int i = 0; i < n; i++) {
+                    pts[i] = new Coordinate(random.nextInt(side + 1), random.nextInt(side + 1));
+                }
+                break;
+            case EXTREME_CLUSTERS:
+                final double far = 1e15;
+                for (int i = 0; i < n; i++) {
+                    double cx = random.nextBoolean() ? far : -far;
+                    double cy = random.nextBoolean() ? far : -far;
+                    pts[i] = new Coordinate(cx + random.nextGaussian(), cy + random.nextGaussian());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown shape: " + shape);
+        }
+        return pts;
+    }
+
+    /**
+     * Generates n strictly x-monotone chains of the given shape
+     */
+    public List<MonotoneChain> chains(ChainShape shape, int n) {
+        List<MonotoneChain> chains = new ArrayList<>(n);
+        double width = Math.max(10, n/8.0);  // constant density: the horizon grows linearly
+        for (int i = 0; i < n; i++) {
+            switch (shape) {
+                case RANDOM: {
+                    double x = width*random.nextDouble();
+                    double len = random.nextDouble();
+                    Coordinate p1 = new Coordinate(x, random.nextDouble());
+                    Coordinate p3 = new Coordinate(x + len, random.nextDouble());
+                    if (random.nextBoolean()) {
+                        chains.add(new MonotoneChain(p1, p3));
+                    } else {
+                        chains.add(new MonotoneChain(p1, new Coordinate(x + len*random.nextDouble(), 2*random.nextDouble()), p3));
+                    }
+                    break;
+                }
+                case GRID: {
+                    int x = random.nextInt((int)width);
+                    int len = 1 + random.nextInt(3);
+                    List<Coordinate> coords = new ArrayList<>();
+                    for (int j = 0; j <= len; j++) {
+                        coords.add(new Coordinate(x + j, random.nextInt(4)));
+                    }
+                    chains.add(MonotoneChain.create(coords));
+                    break;
+                }
+                case COLLINEAR: {
+                    int x = random.nextInt((int)width);
+                    int len = 1 + random.nextInt(3);
+                    chains.add(new MonotoneChain(new Coordinate(x, 0.5*x), new Coordinate(x + len, 0.5*(x + len))));
+                    break;
+                }
+                case CROSSING: {
+                    double x = random.nextDouble();
+                    List<Coordinate> coords = new ArrayList<>();
+                    for (int j = 0; j < 20; j++) {
+                        coords.add(new Coordinate(x, random.nextDouble()));
+                        x += 0.5 + random.nextDouble();
+                    }
+                    chains.add(MonotoneChain.create(coords));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("unknown shape: " + shape);
+            }
+        }
+        return chains;
+    }
+}
@@ -0,0 +1,66 @@
+package mse.alg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Measures the running time of an algorithm for growing input sizes and estimates the
+ * exponent of the growth: about 1 for O(n) and O(n log n), 2 for quadratic algorithms.
+ */
+public class ScalingCurve {
+    private final List<long[]> points = new ArrayList<>();
+
+    /**
+     * Measures the task for all sizes (minimum of several repetitions). The input is created
+     * by the factory outside of the measured time.
+     * @param sizes increasing input sizes
+     * @param repetitions repetitions per size
+     * @param factory creates the task for an input size
+     */
+    public static ScalingCurve measure(int[] sizes, int repetitions, IntFunction<Runnable> factory) {
+        ScalingCurve curve = new ScalingCurve();
+        for (int n : sizes) {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < repetitions; r++) {
+                Runnable task = factory.apply(n);
+                long start = System.nanoTime();
+                task.run();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            curve.add(n, best);
+        }
+        return curve;
+    }
+
+    public void add(int n, long nanos) {
+        points.add(new long[] { n, Math.max(1, nanos) });
+    }
+
+    /**
+     * Returns the growth exponent: least squares slope of log(time) over log(n). The smallest
+     * size is dominated by the JIT compiler and only part of the printout.
+     */
+    public double getExponent() {
+        if (points.size() < 3) {
+            throw new IllegalStateException("at least three sizes needed");
+        }
+        int m = points.size() - 1;
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (long[] p : points.subList(1, points.size())) {
+            double x = Math.log(p[0]), y = Math.log(p[1]);
+            sx += x; sy += y; sxx += x*x; sxy += x*y;
+        }
+        return (m*sxy - sx*sy)/(m*sxx - sx*sx);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (long[] p : points) {
+            sb.append(String.format("n=%d: %.2fms, ", p[0], p[1]/1e6));
+        }
+        sb.append(String.format("exponent %.2f", getExponent()));
+        return sb.toString();
+    }
+}
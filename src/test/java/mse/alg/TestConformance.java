@@ -0,0 +1,85 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Geometry;
+import junit.framework.Assert;
+import mse.alg.ex1.ConvexHull2;
+import mse.alg.ex1.ConvexHullBatch;
+import mse.alg.ex1.DynamicConvexHull;
+import mse.alg.ex1.PackedConvexHull;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs all convex hull implementations on the "convexhull" cases of the whole JTS test XML corpus.
+ * The latency histogram of each implementation is reported; its p99 is only checked against
+ * {@link LatencyBaseline} if the opt-in gate is enabled.
+ */
+public class TestConformance {
+    private static final String CORPUS = "/jts/testxml";
+
+    @Test
+    public void testConvexHullCorpus() throws IOException {
+        List<XmlTestCase> cases = new ArrayList<XmlTestCase>();
+        for (XmlTestCase c : XmlTestLoader.loadTree(CORPUS)) {
+            if (c.isOp("convexhull")) cases.add(c);
+        }
+        Assert.assertFalse(cases.isEmpty());
+
+        Map<String, Function<Geometry, Geometry>> algorithms = new LinkedHashMap<String, Function<Geometry, Geometry>>();
+        algorithms.put("ConvexHull2", g -> new ConvexHull2(g).getConvexHull());
+        algorithms.put("ConvexHull2 prefilter", g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setPrefilter(true);
+            return hull.getConvexHull();
+        });
+        algorithms.put("ConvexHull2 output sensitive", g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setOutputSensitive(true);
+            return hull.getConvexHull();
+        });
+        algorithms.put("ConvexHull2 parallel", g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setParallel(true);
+            hull.setParallelThreshold(3);
+            return hull.getConvexHull();
+        });
+        algorithms.put("ConvexHull2 hull", g -> new ConvexHull2(g).getHull().toGeometry());
+        algorithms.put("PackedConvexHull", g -> new PackedConvexHull(g).getConvexHull());
+        algorithms.put("DynamicConvexHull", g -> {
+            DynamicConvexHull hull = new DynamicConvexHull(g.getFactory());
+            hull.add(g);
+            return hull.snapshot();
+        });
+        algorithms.put("ConvexHullBatch", g -> new ConvexHullBatch().getConvexHulls(Collections.singletonList(g).iterator()).get(0));
+
+        // sequential: the cases don't compete for the cores, stable times for the latency gate
+        ConformanceRunner runner = new ConformanceRunner();
+        runner.setParallel(false);
+        runner.setWarmupRounds(50);
+        runner.setRepetitions(20);
+        LatencyBaseline baseline = new LatencyBaseline();
+        StringBuilder failures = new StringBuilder();
+        for (Map.Entry<String, Function<Geometry, Geometry>> e : algorithms.entrySet()) {
+            ConformanceRunner.Report report = runner.run(cases, XmlTestCase::getA, e.getValue(),
+                    (c, hull) -> c.getExpectedGeometry().equals(hull));
+            report.print(System.out, e.getKey());
+            for (ConformanceRunner.Result r : report.getFailures()) {
+                failures.append(e.getKey()).append(": ").append(r.testCase).append('\n');
+            }
+
+            String regression = baseline.check("convexhull." + e.getKey().replace(' ', '-'), report.getHistogram());
+            if (regression != null) {
+                failures.append(regression).append('\n');
+            }
+        }
+        baseline.save();
+        Assert.assertEquals("", failures.toString());
+    }
+}
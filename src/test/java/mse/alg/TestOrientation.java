@@ -0,0 +1,71 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+public class TestOrientation {
+
+    @Test
+    public void testSimpleCases(){
+        Coordinate a = new Coordinate(0, 0);
+        Coordinate b = new Coordinate(10, 0);
+        Assert.assertEquals(Orientation.COUNTERCLOCKWISE, Orientation.index(a, b, new Coordinate(5, 1)));
+        Assert.assertEquals(Orientation.CLOCKWISE, Orientation.index(a, b, new Coordinate(5, -1)));
+        Assert.assertEquals(Orientation.COLLINEAR, Orientation.index(a, b, new Coordinate(20, 0)));
+        Assert.assertEquals(Orientation.COLLINEAR, Orientation.index(a, a, b));
+    }
+
+    @Test
+    public void testRandomPoints(){
+        Random rnd = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            double[] v = new double[6];
+            for (int j = 0; j < 6; j++) v[j] = (rnd.nextDouble() - 0.5)*Math.pow(10, rnd.nextInt(10));
+            checkExact(v[0], v[1], v[2], v[3], v[4], v[5]);
+        }
+    }
+
+    /**
+     * Grid of nearly collinear points around (0.5, 0.5) relative to the line (12,12)-(24,24):
+     * the naive floating point determinant is wrong for many of them.
+     */
+    @Test
+    public void testNearlyCollinear(){
+        double ulp = Math.ulp(0.5);
+        for (int i = 0; i < 256; i++) {
+            for (int j = 0; j < 256; j++) {
+                double x = 0.5 + i*ulp, y = 0.5 + j*ulp;
+                checkExact(x, y, 12, 12, 24, 24);
+                checkExact(12, 12, x, y, 24, 24);
+                checkExact(24, 24, 12, 12, x, y);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomCollinear(){
+        Random rnd = new Random(2);
+        for (int i = 0; i < 100000; i++) {
+            // c = a + t*(b - a), rounded: exactly collinear only sometimes
+            double ax = rnd.nextDouble()*1000, ay = rnd.nextDouble()*1000;
+            double bx = rnd.nextDouble()*1000, by = rnd.nextDouble()*1000;
+            double t = rnd.nextDouble()*3 - 1;
+            checkExact(ax, ay, bx, by, ax + t*(bx - ax), ay + t*(by - ay));
+        }
+    }
+
+    private static void checkExact(double ax, double ay, double bx, double by, double cx, double cy) {
+        BigDecimal acx = new BigDecimal(ax).subtract(new BigDecimal(cx));
+        BigDecimal acy = new BigDecimal(ay).subtract(new BigDecimal(cy));
+        BigDecimal bcx = new BigDecimal(bx).subtract(new BigDecimal(cx));
+        BigDecimal bcy = new BigDecimal(by).subtract(new BigDecimal(cy));
+        int expected = acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+
+        Assert.assertEquals("(" + ax + " " + ay + ", " + bx + " " + by + ", " + cx + " " + cy + ")",
+                expected, Orientation.index(ax, ay, bx, by, cx, cy));
+    }
+}
@@ -0,0 +1,119 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.PrecisionModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One operation (&lt;test&gt;&lt;op&gt;) of a case of the JTS test XML corpus.
+ * <p>
+ * Immutable. The geometries are parsed on first access and shared through the WKT cache
+ * of {@link XmlTestLoader}: they must not be modified.
+ */
+public final class XmlTestCase {
+    private final String file;
+    private final int caseNo;
+    private final int testNo;
+    private final String description;
+    private final PrecisionModel precisionModel;
+    private final String wktA, wktB;
+    private final String op;
+    private final List<String> args;
+    private final String expected;
+
+    XmlTestCase(String file, int caseNo, int testNo, String description, PrecisionModel precisionModel,
+                String wktA, String wktB, String op, String[] args, String expected) {
+        this.file = file;
+        this.caseNo = caseNo;
+        this.testNo = testNo;
+        this.description = description;
+        this.precisionModel = precisionModel;
+        this.wktA = wktA;
+        this.wktB = wktB;
+        this.op = op;
+        this.args = Collections.unmodifiableList(Arrays.asList(args.clone()));
+        this.expected = expected;
+    }
+
+    /**
+     * Returns the resource path of the XML file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of the case in its file, starting at 1
+     */
+    public int getCaseNo() {
+        return caseNo;
+    }
+
+    /**
+     * Returns the number of the test in its case, starting at 1
+     */
+    public int getTestNo() {
+        return testNo;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the operation name, e.g. "convexhull"
+     */
+    public String getOp() {
+        return op;
+    }
+
+    /**
+     * Returns true if this is an operation of the given name (case insensitive)
+     */
+    public boolean isOp(String name) {
+        return op.equalsIgnoreCase(name);
+    }
+
+    /**
+     * Returns the operation arguments arg1, arg2, ... as in the file
+     */
+    public List<String> getArgs() {
+        return args;
+    }
+
+    /**
+     * Returns geometry A
+     */
+    public Geometry getA() {
+        return XmlTestLoader.readWkt(precisionModel, wktA);
+    }
+
+    /**
+     * Returns geometry B or null if the case has none
+     */
+    public Geometry getB() {
+        return (wktB == null) ? null : XmlTestLoader.readWkt(precisionModel, wktB);
+    }
+
+    /**
+     * Returns the expected result as text: WKT, a boolean, a number or an intersection matrix
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the expected result parsed as geometry
+     */
+    public Geometry getExpectedGeometry() {
+        return XmlTestLoader.readWkt(precisionModel, expected);
+    }
+
+    @Override
+    public String toString() {
+        return file + " #" + caseNo + "." + testNo + " " + op;
+    }
+}
@@ -0,0 +1,170 @@
+package mse.alg;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the JTS test XML files (&lt;run&gt;&lt;case&gt;&lt;a&gt;&lt;b&gt;&lt;test&gt;&lt;op&gt;) into
+ * immutable lists of {@link XmlTestCase}s.
+ * <p>
+ * Each resource is parsed once per JVM. The WKT geometries are parsed lazily and cached by
+ * precision model and text, so a geometry used by many tests is parsed only once.
+ * Thread safe.
+ */
+public final class XmlTestLoader {
+    private static final Map<String, List<XmlTestCase>> files = new ConcurrentHashMap<>();
+    private static final Map<String, Geometry> geometries = new ConcurrentHashMap<>();
+
+    private XmlTestLoader() {}
+
+    /**
+     * Returns the cases of a test XML resource, e.g. "/jts/testxml/general/TestConvexHull.xml".
+     * The resource is parsed on the first call only.
+     */
+    public static List<XmlTestCase> load(String resource) {
+        return files.computeIfAbsent(resource, r -> {
+            try (InputStream is = XmlTestLoader.class.getResourceAsStream(r)) {
+                if (is == null) {
+                    throw new IllegalArgumentException("Can not read resource: " + r);
+                }
+                return load(is, r);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Can not read resource: " + r, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the cases of all test XML files below a resource directory (e.g. "/jts/testxml")
+     * in the order of the file names. The files are parsed in parallel.
+     */
+    public static List<XmlTestCase> loadTree(String resourceDir) {
+        URL url = XmlTestLoader.class.getResource(resourceDir);
+        if (url == null) {
+            throw new IllegalArgumentException("Can not read resource: " + resourceDir);
+        }
+
+        List<String> resources;
+        try (Stream<Path> paths = Files.walk(Paths.get(url.toURI()))) {
+            Path root = Paths.get(url.toURI());
+            resources = paths
+                    .filter(p -> p.toString().endsWith(".xml"))
+                    .map(p -> resourceDir + "/" + root.relativize(p).toString().replace('\\', '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalArgumentException("Can not list resource: " + resourceDir, e);
+        }
+
+        List<XmlTestCase> cases = new ArrayList<>();
+        resources.parallelStream().map(XmlTestLoader::load).collect(Collectors.toList()).forEach(cases::addAll);
+        return Collections.unmodifiableList(cases);
+    }
+
+    /**
+     * Parses a test XML stream (not cached)
+     * @param name file name of the cases
+     */
+    public static List<XmlTestCase> load(InputStream is, String name) {
+        List<XmlTestCase> cases = new ArrayList<>();
+        try {
+            XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(is);
+            PrecisionModel pm = new PrecisionModel();
+            StringBuilder sb = new StringBuilder();
+            String desc = "", wktA = null, wktB = null, op = null;
+            String[] args = null;
+            int caseNo = 0, testNo = 0;
+
+            for (int event = parser.next(); event != XMLStreamConstants.END_DOCUMENT; event = parser.next()) {
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String s = parser.getLocalName();
+                        sb.setLength(0);
+                        if (s.equals("precisionModel")) {
+                            pm = createPrecisionModel(parser);
+                        } else if (s.equals("case")) {
+                            caseNo++;
+                            testNo = 0;
+                            desc = "";
+                            wktA = wktB = null;
+                        } else if (s.equals("op")) {
+                            op = parser.getAttributeValue(null, "name");
+                            List<String> a = new ArrayList<>();
+                            for (int i = 1; parser.getAttributeValue(null, "arg" + i) != null; i++) {
+                                a.add(parser.getAttributeValue(null, "arg" + i));
+                            }
+                            args = a.toArray(new String[a.size()]);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        String text = sb.toString().trim();
+                        switch (parser.getLocalName()) {
+                            case "desc": desc = text; break;
+                            case "a": wktA = text; break;
+                            case "b": wktB = text; break;
+                            case "op":
+                                cases.add(new XmlTestCase(name, caseNo, ++testNo, desc, pm, wktA, wktB, op, args, text));
+                                break;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        sb.append(parser.getText());
+                        break;
+                }
+            }
+            parser.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Can not parse " + name, e);
+        }
+        return Collections.unmodifiableList(cases);
+    }
+
+    private static PrecisionModel createPrecisionModel(XMLStreamReader parser) {
+        String type = parser.getAttributeValue(null, "type");
+        String scale = parser.getAttributeValue(null, "scale");
+        if (scale != null) {
+            return new PrecisionModel(Double.parseDouble(scale));
+        }
+        if ("FLOATING_SINGLE".equals(type)) {
+            return new PrecisionModel(PrecisionModel.FLOATING_SINGLE);
+        }
+        return new PrecisionModel();
+    }
+
+    /**
+     * Parses WKT with the cache
+     * @throws IllegalArgumentException if the text isn't valid WKT
+     */
+    static Geometry readWkt(PrecisionModel pm, String wkt) {
+        return geometries.computeIfAbsent(pm + "\n" + wkt, key -> {
+            try {
+                return new WKTReader(new GeometryFactory(pm)).read(wkt);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Invalid WKT: " + wkt, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package mse.alg.ex1;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Worker process of the hull of hulls test: reads a partition of points (little endian
+ * x, y doubles), computes its hull and writes the {@link HullSummary} into a file.
+ * <p>
+ * Usage: HullSummaryWorker &lt;points file&gt; &lt;summary file&gt;
+ */
+public class HullSummaryWorker {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: HullSummaryWorker <points file> <summary file>");
+            System.exit(2);
+        }
+
+        DoubleBuffer xy = ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0]))).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        Coordinate[] pts = new Coordinate[xy.remaining()/2];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = new Coordinate(xy.get(), xy.get());
+        }
+
+        HullSummary summary = HullSummary.of(pts);
+        try (OutputStream os = Files.newOutputStream(Paths.get(args[1]));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            summary.write(out);
+        }
+    }
+}
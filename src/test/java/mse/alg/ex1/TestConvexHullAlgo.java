@@ -1,125 +1,586 @@
 package mse.alg.ex1;
 
+import com.vividsolutions.jts.algorithm.ConvexHull;
+import com.vividsolutions.jts.algorithm.MinimumDiameter;
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
 import com.vividsolutions.jts.geom.GeometryFactory;
-import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
 import junit.framework.Assert;
+import mse.alg.ConformanceRunner;
+import mse.alg.LatencyBaseline;
+import mse.alg.RandomInputs;
+import mse.alg.ScalingCurve;
+import mse.alg.XmlTestCase;
+import mse.alg.XmlTestLoader;
+import org.junit.Assume;
 import org.junit.Test;
 
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class TestConvexHullAlgo {
-
+    private static final String TEST_CASES = "/jts/testxml/general/TestConvexHull.xml";
 
     @Test
     public void testConvexHullAlgorithm(){
-        String testCase = "/jts/testxml/general/TestConvexHull.xml";
-        InputStream is = getClass().getResourceAsStream(testCase);
-        try {
-            if(is == null){
-                Assert.fail("Can not read resource :" + testCase);
+        doTestConvex(TEST_CASES, g -> new ConvexHull2(g).getConvexHull());
+    }
+
+    @Test
+    public void testDuplicateAndCollinearPoints(){
+        GeometryFactory fact = new GeometryFactory();
+        // 3x3 grid: non-consecutive duplicates and collinear points on every edge
+        Coordinate[] pts = new Coordinate[18];
+        for (int i = 0; i < 9; i++) {
+            pts[i] = new Coordinate(i % 3, i / 3);
+            pts[i + 9] = new Coordinate(i / 3, i % 3);
+        }
+        Geometry expected = fact.createPolygon(new Coordinate[] {
+                new Coordinate(0, 0), new Coordinate(2, 0), new Coordinate(2, 2), new Coordinate(0, 2), new Coordinate(0, 0) });
+        expected.normalize();
+
+        for (boolean parallel : new boolean[] { false, true }) {
+            ConvexHull2 hull = new ConvexHull2(pts.clone(), fact);
+            hull.setParallel(parallel);
+            hull.setParallelThreshold(4);
+            Geometry result = hull.getConvexHull();
+            result.normalize();
+            Assert.assertTrue("parallel " + parallel + ": " + result, expected.equalsExact(result));
+        }
+
+        double[] xs = new double[pts.length], ys = new double[pts.length];
+        for (int i = 0; i < pts.length; i++) {
+            xs[i] = pts[i].x;
+            ys[i] = pts[i].y;
+        }
+        Geometry packed = new PackedConvexHull(xs, ys, fact).getConvexHull();
+        packed.normalize();
+        Assert.assertTrue("packed: " + packed, expected.equalsExact(packed));
+    }
+
+    @Test
+    public void testConvexHullTracer(){
+        GeometryFactory fact = new GeometryFactory();
+        Coordinate[] pts = {
+                new Coordinate(0, 0), new Coordinate(10, 0), new Coordinate(5, 2),
+                new Coordinate(10, 10), new Coordinate(0, 10), new Coordinate(5, 8) };
+        final int[] counts = new int[3];
+
+        ConvexHull2 hull = new ConvexHull2(pts, fact);
+        hull.setTracer(new ConvexHullTracer() {
+            @Override
+            public void sortedInput(Coordinate[] sortedPts) { counts[0] += sortedPts.length; }
+            @Override
+            public void reduced(Coordinate removed) { counts[1]++; }
+            @Override
+            public void merge(List<Coordinate> upperHull, List<Coordinate> lowerHull) { counts[2]++; }
+        });
+        hull.getConvexHull();
+
+        Assert.assertEquals(6, counts[0]);
+        Assert.assertEquals(6, counts[1]);    // (5 2), (5 8) and one corner are removed from each chain
+        Assert.assertEquals(1, counts[2]);
+
+        // the hull is computed once for all results
+        Geometry geom = hull.getConvexHull();
+        Assert.assertEquals(4, hull.getHull().getVertexCount());
+        Assert.assertEquals(4, hull.getSummary().getVertexCount());
+        Assert.assertEquals(1, counts[2]);
+        Assert.assertTrue(geom.equalsExact(hull.getConvexHull()));
+
+        // changing the mode computes it again
+        hull.setPrefilter(true);
+        hull.getSummary();
+        Assert.assertEquals(2, counts[2]);
+    }
+
+    @Test
+    public void testConvexHullPrefilter(){
+        doTestConvex(TEST_CASES, g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setPrefilter(true);
+            return hull.getConvexHull();
+        });
+
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(7);
+        Coordinate[] pts = new Coordinate[10000];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = new Coordinate(rnd.nextDouble(), rnd.nextDouble());
+        }
+
+        Geometry expected = new ConvexHull2(pts.clone(), fact).getConvexHull();
+        ConvexHull2 hull = new ConvexHull2(pts.clone(), fact);
+        hull.setPrefilter(true);
+        Assert.assertTrue(expected.equals(hull.getConvexHull()));
+        int discarded = hull.getDiscardedCount();
+        Assert.assertTrue("only " + discarded + " points discarded", discarded > pts.length/2);
+
+        // the input isn't replaced by the filtered points: the next call discards the same points
+        Assert.assertTrue(expected.equals(hull.getConvexHull()));
+        Assert.assertEquals(discarded, hull.getDiscardedCount());
+    }
+
+    @Test
+    public void testParallelConvexHull(){
+        doTestConvex(TEST_CASES, g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setParallel(true);
+            hull.setParallelThreshold(3);
+            return hull.getConvexHull();
+        });
+
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(11);
+        for (int run = 0; run < 20; run++) {
+            // integer grid produces many collinear points
+            Coordinate[] pts = new Coordinate[5000];
+            for (int i = 0; i < pts.length; i++) {
+                pts[i] = new Coordinate(rnd.nextInt(100), rnd.nextInt(100));
             }
-            doTestConvex(is);
-        }catch (ParseException e){
-            e.printStackTrace();
-            Assert.fail(e.getMessage());
+
+            Geometry expected = new ConvexHull2(fact.createMultiPoint(pts)).getConvexHull();
+            ConvexHull2 hull = new ConvexHull2(fact.createMultiPoint(pts));
+            hull.setParallel(true);
+            hull.setParallelThreshold(3 + run);
+            Assert.assertTrue("run " + run, expected.equalsExact(hull.getConvexHull()));
         }
     }
 
-    public void doTestConvex(InputStream is) throws ParseException {
+    @Test
+    public void testOutputSensitiveConvexHull(){
+        doTestConvex(TEST_CASES, g -> {
+            ConvexHull2 hull = new ConvexHull2(g);
+            hull.setOutputSensitive(true);
+            return hull.getConvexHull();
+        });
 
-        int nRuns = 0, nFailures = 0, nExceptions = 0;
-        long time = 0;
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(13);
+        for (int run = 0; run < 40; run++) {
+            Coordinate[] pts = new Coordinate[1 + rnd.nextInt(3000)];
+            for (int i = 0; i < pts.length; i++) {
+                switch (run % 4) {
+                    case 0: pts[i] = new Coordinate(rnd.nextDouble(), rnd.nextDouble()); break;
+                    case 1: pts[i] = new Coordinate(rnd.nextInt(30), rnd.nextInt(30)); break;
+                    case 2: pts[i] = new Coordinate(rnd.nextInt(30), 5); break;
+                    default:
+                        double a = 2*Math.PI*rnd.nextInt(500)/500;
+                        pts[i] = new Coordinate(Math.round(1000*Math.cos(a)), Math.round(1000*Math.sin(a)));
+                }
+            }
 
-        try {
+            Geometry expected = new ConvexHull2(fact.createMultiPoint(pts)).getConvexHull();
+            ConvexHull2 hull = new ConvexHull2(pts, fact);
+            hull.setOutputSensitive(true);
+            Geometry result = hull.getConvexHull();
+            expected.normalize();
+            result.normalize();
+            Assert.assertTrue("run " + run + ": " + result + " != " + expected, expected.equalsExact(result));
+        }
+    }
 
-            XMLInputFactory factory = XMLInputFactory.newInstance();
-            XMLStreamReader parser = factory.createXMLStreamReader(is);
-            boolean inDesc = false, inInput = false, inSolution = false;
-            StringBuilder sb = new StringBuilder();
-            String s;
-            GeometryFactory fact = new GeometryFactory();
-            WKTReader wktRdr = new WKTReader(fact);
-            Geometry gIn = null, gSolution = null;
-            long tStart = System.currentTimeMillis();
-
-            for (int event = parser.next(); event != XMLStreamConstants.END_DOCUMENT; event = parser.next()) {
-                switch (event) {
-                    case XMLStreamConstants.START_ELEMENT:
-                        s = parser.getLocalName();
-                        if (s.equals("desc")) inDesc = true;
-                        if (s.equals("a")) inInput = true;
-                        if (s.equals("op")) inSolution = true;
-                        sb.setLength(0);
-                        break;
-                    case XMLStreamConstants.END_ELEMENT:
-                        s = parser.getLocalName();
-                        if (s.equals("desc")) inDesc = false;
-                        if (s.equals("a")) {
-                            inInput = false;
-                            gIn = wktRdr.read(sb.toString());
-                        }
-                        if (s.equals("op")) {
-                            inSolution = false;
-                            gSolution = wktRdr.read(sb.toString());
-                            try {
-                                nRuns++;
-                                if (!runCase(gIn, gSolution)) {
-                                    nFailures++;
-                                }
-                            } catch(Exception ex) {
-                                System.out.println("Exception: " + ex.getMessage() + "\n");
-                                nExceptions++;
-                            }
-                        }
-                        break;
-                    case XMLStreamConstants.CHARACTERS:
-                        s = parser.getText();
-                        if (inDesc)
-                            System.out.println(s);
-                        if (inInput) {
-                            sb.append(s);
-                        }
-                        if (inSolution) {
-                            sb.append(s);
+    @Test
+    public void testDynamicConvexHull(){
+        doTestConvex(TEST_CASES, g -> {
+            DynamicConvexHull hull = new DynamicConvexHull(g.getFactory());
+            hull.add(g);
+            return hull.snapshot();
+        });
+
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(17);
+        for (int run = 0; run < 10; run++) {
+            DynamicConvexHull hull = new DynamicConvexHull(fact);
+            Coordinate[] pts = new Coordinate[2000];
+            for (int i = 0; i < pts.length; i++) {
+                pts[i] = (run % 2 == 0)
+                        ? new Coordinate(rnd.nextInt(40), rnd.nextInt(40))
+                        : new Coordinate(rnd.nextGaussian(), rnd.nextGaussian());
+                hull.add(pts[i]);
+
+                if (i % 250 == 0 || i == pts.length - 1) {
+                    Coordinate[] inserted = Arrays.copyOf(pts, i + 1);
+                    Geometry expected = new ConvexHull2(fact.createMultiPoint(inserted)).getConvexHull();
+                    Assert.assertTrue("run " + run + " @ " + i, expected.equals(hull.snapshot()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConvexHullBatch(){
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(19);
+        Geometry[] geometries = new Geometry[500];
+        for (int i = 0; i < geometries.length; i++) {
+            Coordinate[] pts = new Coordinate[rnd.nextInt(200)];
+            for (int j = 0; j < pts.length; j++) {
+                pts[j] = new Coordinate(rnd.nextInt(20), rnd.nextInt(20));
+            }
+            geometries[i] = fact.createMultiPoint(pts);
+        }
+        GeometryCollection collection = fact.createGeometryCollection(geometries);
+
+        ConvexHullBatch batch = new ConvexHullBatch();
+        List<Geometry> sequential = batch.getConvexHulls(collection);
+        batch.setParallel(true);
+        List<Geometry> parallel = batch.getConvexHulls(collection);
+
+        Assert.assertEquals(geometries.length, sequential.size());
+        Assert.assertEquals(geometries.length, parallel.size());
+        for (int i = 0; i < geometries.length; i++) {
+            Geometry expected = new ConvexHull2(geometries[i]).getConvexHull();
+            Geometry result = (Geometry)sequential.get(i).clone();
+            expected.normalize();
+            result.normalize();
+            Assert.assertTrue("geometry " + i, expected.equalsExact(result));
+            Assert.assertTrue("geometry " + i, sequential.get(i).equalsExact(parallel.get(i)));
+        }
+    }
+
+    @Test
+    public void testPackedConvexHullAlgorithm(){
+        doTestConvex(TEST_CASES, g -> new PackedConvexHull(g).getConvexHull());
+    }
+
+    @Test
+    public void testPackedConvexHullRandom(){
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(42);
+
+        for (int run = 0; run < 100; run++) {
+            // small integer grid produces many duplicates and collinear points
+            int n = 1 + rnd.nextInt(2000);
+            int range = 1 + rnd.nextInt(50);
+            double[] xs = new double[n], ys = new double[n];
+            Coordinate[] pts = new Coordinate[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = rnd.nextInt(range);
+                ys[i] = (run % 10 == 0) ? 2*xs[i] : rnd.nextInt(range);
+                pts[i] = new Coordinate(xs[i], ys[i]);
+            }
+
+            Geometry expected = new ConvexHull2(fact.createMultiPoint(pts)).getConvexHull();
+            Geometry result = new PackedConvexHull(xs, ys, fact).getConvexHull();
+            expected.normalize();
+            result.normalize();
+            Assert.assertTrue("run " + run + ": " + result + " != " + expected, expected.equalsExact(result));
+        }
+    }
+
+    @Test
+    public void testConvexHullFuzz() throws IOException {
+        GeometryFactory fact = new GeometryFactory();
+
+        for (long seed = 1; seed <= 5; seed++) {
+            RandomInputs inputs = new RandomInputs(seed);
+            for (RandomInputs.PointShape shape : RandomInputs.PointShape.values()) {
+                for (int n : new int[] { 3, 100, 10000, 100000 }) {
+                    Coordinate[] pts = inputs.points(shape, n);
+                    Geometry expected = new ConvexHull(pts, fact).getConvexHull();
+                    expected.normalize();
+
+                    ConvexHull2 sequential = new ConvexHull2(pts.clone(), fact);
+                    ConvexHull2 parallel = new ConvexHull2(pts.clone(), fact);
+                    parallel.setParallel(true);
+                    parallel.setParallelThreshold(1000);
+                    double[] xs = new double[n], ys = new double[n];
+                    for (int i = 0; i < n; i++) {
+                        xs[i] = pts[i].x;
+                        ys[i] = pts[i].y;
+                    }
+                    List<Geometry> results = new ArrayList<>();
+                    results.add(sequential.getConvexHull());
+                    results.add(parallel.getConvexHull());
+                    results.add(new PackedConvexHull(xs, ys, fact).getConvexHull());
+                    results.add(new ConvexHullBatch().getConvexHulls(
+                            fact.createGeometryCollection(new Geometry[] { fact.createMultiPoint(pts) })).get(0));
+                    for (Geometry result : results) {
+                        result.normalize();
+                        Assert.assertTrue("seed " + seed + ", " + shape + ", n=" + n + ": " + result + " != " + expected,
+                                expected.equalsExact(result));
+                    }
+
+                    // the approximate hull has the same contract: its vertices are hull vertices without collinear ones
+                    Path file = Files.createTempFile("points", ".bin");
+                    try {
+                        double[] xy = new double[2*n];
+                        for (int i = 0; i < n; i++) {
+                            xy[2*i] = xs[i];
+                            xy[2*i + 1] = ys[i];
                         }
-                        break;
-                    case XMLStreamConstants.CDATA:
-                        break;
-                } // end switch
-            } // end while
+                        writePoints(file, xy);
+                        Geometry mapped = new MappedConvexHull(file, fact).getConvexHull();
+                        Geometry rehull = new ConvexHull2(mapped.getCoordinates(), fact).getConvexHull();
+                        mapped.normalize();
+                        rehull.normalize();
+                        Assert.assertTrue("seed " + seed + ", " + shape + ", n=" + n + ": mapped " + mapped,
+                                rehull.equalsExact(mapped) && expected.covers(mapped));
+                    } finally {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wall-clock timings, only checked if the gates are enabled (see {@link LatencyBaseline})
+     */
+    @Test
+    public void testConvexHullScaling() {
+        Assume.assumeTrue(LatencyBaseline.isGateEnabled());
+        GeometryFactory fact = new GeometryFactory();
+        int[] sizes = { 1 << 14, 1 << 15, 1 << 16, 1 << 17, 1 << 18 };
+
+        for (RandomInputs.PointShape shape : RandomInputs.PointShape.values()) {
+            RandomInputs inputs = new RandomInputs(7);
+            ScalingCurve curve = ScalingCurve.measure(sizes, 3, n -> {
+                Coordinate[] pts = inputs.points(shape, n);
+                return () -> new ConvexHull2(pts, fact).getConvexHull();
+            });
+            // n log n is about 1.1, quadratic behaviour is 2
+            Assert.assertTrue(shape + ": super-linear scaling " + curve, curve.getExponent() < 1.5);
+        }
+    }
+
+    @Test
+    public void testMappedConvexHull() throws IOException {
+        GeometryFactory fact = new GeometryFactory();
+        Random rnd = new Random(7);
+        int n = 50000;
+        double[] xy = new double[2*n];
+        Coordinate[] pts = new Coordinate[n];
+        for (int i = 0; i < n; i++) {
+            // disk around (-300, 200): the x range grows to both sides while reading
+            double r = 1000*Math.sqrt(rnd.nextDouble()), a = 2*Math.PI*rnd.nextDouble();
+            xy[2*i] = -300 + r*Math.cos(a);
+            xy[2*i + 1] = 200 + r*Math.sin(a);
+            pts[i] = new Coordinate(xy[2*i], xy[2*i + 1]);
+        }
+
+        Path file = Files.createTempFile("points", ".bin");
+        try {
+            writePoints(file, xy);
+            MappedConvexHull mapped = new MappedConvexHull(file, fact);
+            mapped.setBucketCount(256);
+            Geometry result = mapped.getConvexHull();
+            Geometry exact = new ConvexHull2(pts, fact).getConvexHull();
+
+            Assert.assertEquals(n, mapped.getPointCount());
+            Assert.assertTrue(mapped.getMaxError() < 4*2000/256.0);
+            Assert.assertTrue(exact.buffer(1e-9).covers(result));
+            for (Coordinate c : pts) {
+                Assert.assertTrue(c + " too far away", result.distance(fact.createPoint(c)) <= mapped.getMaxError());
+            }
+
+            // triangle is exact
+            writePoints(file, new double[] { 5, 5, 0, 0, 10, 0, 5, 1 });
+            Assert.assertTrue(mapped.getConvexHull().equalsExact(
+                    new ConvexHull2(new Coordinate[] { new Coordinate(5, 5), new Coordinate(0, 0), new Coordinate(10, 0) }, fact).getConvexHull()));
+
+            writePoints(file, new double[0]);
+            Assert.assertTrue(mapped.getConvexHull().isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void writePoints(Path file, double[] xy) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8*xy.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(xy);
+        Files.write(file, buffer.array());
+    }
+
+    @Test
+    public void testHullSummary() throws IOException {
+        GeometryFactory fact = new GeometryFactory();
+
+        for (long seed = 1; seed <= 3; seed++) {
+            RandomInputs inputs = new RandomInputs(seed);
+            for (RandomInputs.PointShape shape : RandomInputs.PointShape.values()) {
+                Coordinate[] pts = inputs.points(shape, 5000);
+                HullSummary expected = new ConvexHull2(pts.clone(), fact).getSummary();
 
-            long tEnd = System.currentTimeMillis();
-            time = tEnd - tStart;
+                // partitions merged from left to right and as a tree give the same summary
+                int parts = 7;
+                HullSummary[] summaries = new HullSummary[parts];
+                HullSummary left = HullSummary.empty();
+                for (int p = 0; p < parts; p++) {
+                    summaries[p] = HullSummary.of(Arrays.copyOfRange(pts, p*pts.length/parts, (p + 1)*pts.length/parts));
+                    left = HullSummary.merge(left, summaries[p]);
+                }
+                for (int width = 1; width < parts; width *= 2) {
+                    for (int p = 0; p + width < parts; p += 2*width) {
+                        summaries[p] = HullSummary.merge(summaries[p + width], summaries[p]);
+                    }
+                }
+                Assert.assertEquals(seed + " " + shape, expected, left);
+                Assert.assertEquals(seed + " " + shape, expected, summaries[0]);
 
-            parser.close();
-        } catch (XMLStreamException ex) {
-            ex.printStackTrace();
+                Geometry hull = new ConvexHull2(pts.clone(), fact).getConvexHull();
+                Geometry summaryHull = expected.toGeometry(fact);
+                hull.normalize();
+                summaryHull.normalize();
+                Assert.assertTrue(seed + " " + shape, hull.equalsExact(summaryHull));
+
+                // binary round trip
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                expected.write(new DataOutputStream(bytes));
+                Assert.assertEquals(8 + 16*expected.getVertexCount(), bytes.size());
+                Assert.assertEquals(expected, HullSummary.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+            }
         }
 
-        System.out.println("" + nRuns + " tests (successful: " + (nRuns - nFailures - nExceptions) + ", failures: " + nFailures + ", exceptions: " + nExceptions + ")");
-        System.out.println("" + time + " ms");
+        Assert.assertEquals(HullSummary.empty(), HullSummary.of(new Coordinate[0]));
+        Assert.assertTrue(HullSummary.empty().toGeometry(fact).isEmpty());
+        HullSummary point = HullSummary.of(new Coordinate[] { new Coordinate(1, 1), new Coordinate(1, 1) });
+        Assert.assertEquals(1, point.getVertexCount());
+        Assert.assertEquals(2, HullSummary.merge(point, HullSummary.of(new Coordinate[] { new Coordinate(3, 3) })).getVertexCount());
     }
 
-    private static boolean runCase(Geometry gIn, Geometry gSolution) {
-        if (gIn == null || gSolution == null) {
-            Assert.assertTrue("gIn or gSOlution was ", false);
-            return false;
+    @Test
+    public void testHullSummaryProcesses() throws IOException, InterruptedException {
+        GeometryFactory fact = new GeometryFactory();
+        Coordinate[] pts = new RandomInputs(11).points(RandomInputs.PointShape.UNIFORM, 100000);
+        int workers = 4;
+
+        Path dir = Files.createTempDirectory("hulls");
+        List<Path> files = new ArrayList<Path>();
+        try {
+            // each worker process hulls one partition, the summaries come back as files
+            List<Process> processes = new ArrayList<Process>();
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int w = 0; w < workers; w++) {
+                double[] xy = new double[2*(pts.length/workers)];
+                for (int i = 0; i < xy.length/2; i++) {
+                    xy[2*i] = pts[w*(pts.length/workers) + i].x;
+                    xy[2*i + 1] = pts[w*(pts.length/workers) + i].y;
+                }
+                Path in = dir.resolve("points" + w + ".bin"), out = dir.resolve("summary" + w + ".bin");
+                writePoints(in, xy);
+                files.add(in);
+                files.add(out);
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        HullSummaryWorker.class.getName(), in.toString(), out.toString()).inheritIO().start());
+            }
+
+            HullSummary result = HullSummary.empty();
+            for (int w = 0; w < workers; w++) {
+                Assert.assertTrue("worker " + w + " timed out", processes.get(w).waitFor(60, TimeUnit.SECONDS));
+                Assert.assertEquals("worker " + w, 0, processes.get(w).exitValue());
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(dir.resolve("summary" + w + ".bin")))) {
+                    result = HullSummary.merge(result, HullSummary.read(in));
+                }
+            }
+            Assert.assertEquals(new ConvexHull2(pts, fact).getSummary(), result);
+        } finally {
+            for (Path f : files) {
+                Files.deleteIfExists(f);
+            }
+            Files.delete(dir);
         }
+    }
 
-        //Geometry gResult = new ConvexHull(gIn).getConvexHull();
-        Geometry gResult = new ConvexHull2(gIn).getConvexHull();
+    @Test
+    public void testRotatingCalipers(){
+        GeometryFactory fact = new GeometryFactory();
+
+        // rectangle 4 x 2 with collinear points on its sides
+        ConvexPolygon rect = new ConvexHull2(new Coordinate[] {
+                new Coordinate(0, 0), new Coordinate(2, 0), new Coordinate(4, 0), new Coordinate(4, 2),
+                new Coordinate(2, 2), new Coordinate(0, 2), new Coordinate(1, 1) }, fact).getHull();
+        Assert.assertEquals(4, rect.getVertexCount());
+        Assert.assertEquals(Math.sqrt(20), rect.getDiameter(), 1e-12);
+        Assert.assertEquals(2, rect.getWidth(), 1e-12);
+        Assert.assertEquals(8, rect.getMinimumAreaRectangle().getArea(), 1e-12);
+        Assert.assertEquals(6, rect.getAntipodalPairs().size());    // 4 sides and 2 diagonals
 
-        System.out.println("Result    = " + gResult);
-        System.out.println("Solution  = " + gSolution);
+        Random rnd = new Random(11);
+        for (int run = 0; run < 200; run++) {
+            int n = 3 + rnd.nextInt(500);
+            Coordinate[] pts = new Coordinate[n];
+            for (int i = 0; i < n; i++) {
+                pts[i] = (run % 2 == 0)
+                        ? new Coordinate(rnd.nextInt(100), rnd.nextInt(30))
+                        : new Coordinate(rnd.nextGaussian()*100, rnd.nextGaussian()*20);
+            }
+            Geometry multiPoint = fact.createMultiPoint(pts);
+            ConvexPolygon hull = new ConvexHull2(multiPoint).getHull();
+            Coordinate[] v = hull.getVertices();
+            if (v.length < 3) continue;
 
-        Assert.assertTrue("", gSolution.equals(gResult));
+            // brute force over the hull vertices
+            double diameter = 0, minArea = Double.POSITIVE_INFINITY, minPerimeter = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < v.length; i++) {
+                for (int j = 0; j < v.length; j++) diameter = Math.max(diameter, v[i].distance(v[j]));
+
+                Coordinate p = v[i], q = v[(i + 1) % v.length];
+                double ux = (q.x - p.x)/p.distance(q), uy = (q.y - p.y)/p.distance(q);
+                double minU = 0, maxU = 0, maxN = 0;
+                for (Coordinate c : v) {
+                    double du = (c.x - p.x)*ux + (c.y - p.y)*uy, dn = -(c.x - p.x)*uy + (c.y - p.y)*ux;
+                    minU = Math.min(minU, du);
+                    maxU = Math.max(maxU, du);
+                    maxN = Math.max(maxN, dn);
+                }
+                minArea = Math.min(minArea, (maxU - minU)*maxN);
+                minPerimeter = Math.min(minPerimeter, 2*(maxU - minU + maxN));
+            }
+
+            MinimumDiameter md = new MinimumDiameter(multiPoint);
+            Geometry minRect = hull.getMinimumAreaRectangle();
+            Assert.assertEquals("run " + run, diameter, hull.getDiameter(), 1e-9);
+            Assert.assertEquals("run " + run, md.getLength(), hull.getWidth(), 1e-9);
+            Assert.assertEquals("run " + run, minArea, minRect.getArea(), 1e-6);
+            // JTS aligns its rectangle with the minimum width, which doesn't minimize the area
+            Assert.assertTrue("run " + run, minRect.getArea() <= md.getMinimumRectangle().getArea() + 1e-6);
+            Assert.assertEquals("run " + run, minPerimeter, hull.getMinimumPerimeterRectangle().getLength(), 1e-6);
+            Assert.assertTrue("run " + run, minRect.buffer(1e-6).covers(multiPoint));
+            for (Coordinate[] pair : hull.getAntipodalPairs()) {
+                Assert.assertFalse(pair[0].equals2D(pair[1]));
+            }
+        }
+    }
+
+    private void doTestConvex(String testCase, Function<Geometry, Geometry> hullAlgo){
+        runCases(XmlTestLoader.load(testCase), hullAlgo);
+    }
+
+    public void doTestConvex(InputStream is) {
+        doTestConvex(is, g -> new ConvexHull2(g).getConvexHull());
+    }
+
+    public void doTestConvex(InputStream is, Function<Geometry, Geometry> hullAlgo) {
+        runCases(XmlTestLoader.load(is, "stream"), hullAlgo);
+    }
+
+    private static void runCases(List<XmlTestCase> cases, Function<Geometry, Geometry> hullAlgo) {
+        List<XmlTestCase> hullCases = new ArrayList<XmlTestCase>();
+        for (XmlTestCase c : cases) {
+            if (c.isOp("convexhull")) hullCases.add(c);
+        }
 
-        return gSolution.equals(gResult);
+        ConformanceRunner.Report report = new ConformanceRunner().run(hullCases, XmlTestCase::getA, hullAlgo,
+                (c, hull) -> c.getExpectedGeometry().equals(hull));
+        report.print(System.out, "Convex hull");
+        Assert.assertTrue(report.getFailures().size() + " failed cases", report.getFailures().isEmpty());
     }
 }
@@ -0,0 +1,396 @@
+package mse.alg.ex2;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.triangulate.DelaunayTriangulationBuilder;
+import junit.framework.Assert;
+import mse.alg.LatencyBaseline;
+import mse.alg.RandomInputs;
+import mse.alg.ScalingCurve;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the horizon with a brute force upper envelope of the chains
+ */
+public class TestHorizonAlgorithm {
+    private static final int SAMPLES = 2000;
+
+    @Test
+    public void testSimpleHorizon() {
+        List<MonotoneChain> chains = Arrays.asList(
+                new MonotoneChain(new Coordinate(0, 5), new Coordinate(7, 12), new Coordinate(14, 5)),
+                new MonotoneChain(new Coordinate(7, 0), new Coordinate(14, 10), new Coordinate(21, 0)),
+                new MonotoneChain(new Coordinate(7, 5), new Coordinate(10, 10), new Coordinate(14, 5)));
+        assertUpperEnvelope("simple", chains, new HorizonAlgorithm().computeHorizon(chains));
+    }
+
+    @Test
+    public void testSeparateChains() {
+        // the events of the second horizon were taken from the first one, which had already ended
+        List<MonotoneChain> chains = Arrays.asList(
+                new MonotoneChain(new Coordinate(1, 3), new Coordinate(2, 1)),
+                new MonotoneChain(new Coordinate(3, 3), new Coordinate(4, 3), new Coordinate(5, 3)));
+        assertUpperEnvelope("separate", chains, new HorizonAlgorithm().computeHorizon(chains));
+    }
+
+    @Test
+    public void testTouchingChains() {
+        // both chains share the vertex (4 0), the upper one continues below the other one
+        List<MonotoneChain> chains = Arrays.asList(
+                new MonotoneChain(new Coordinate(3, 1), new Coordinate(4, 0), new Coordinate(5, 2)),
+                new MonotoneChain(new Coordinate(3, 3), new Coordinate(4, 0), new Coordinate(5, 0)));
+        assertUpperEnvelope("shared vertex", chains, new HorizonAlgorithm().computeHorizon(chains));
+
+        // the lower chain touches the upper one in a common vertex from below and continues above it
+        chains = Arrays.asList(
+                new MonotoneChain(new Coordinate(0, 2), new Coordinate(1, 3), new Coordinate(2, 1)),
+                new MonotoneChain(new Coordinate(0, 1), new Coordinate(1, 3), new Coordinate(2, 3)));
+        assertUpperEnvelope("touching from below", chains, new HorizonAlgorithm().computeHorizon(chains));
+    }
+
+    @Test
+    public void testSegmentIntersector() {
+        SegmentIntersector si = new SegmentIntersector();
+
+        Assert.assertEquals(SegmentIntersector.PROPER, si.compute(0, 0, 4, 4, 0, 4, 4, 0));
+        Assert.assertEquals(2, si.getX(), 0);
+        Assert.assertEquals(2, si.getY(), 0);
+        // end point on the other segment, collinear overlap
+        Assert.assertEquals(SegmentIntersector.TOUCH, si.compute(0, 0, 4, 4, 2, 2, 3, 0));
+        Assert.assertEquals(SegmentIntersector.TOUCH, si.compute(0, 0, 4, 4, 3, 3, 6, 6));
+        // parallel, collinear but disjoint, crossing lines outside of the segments
+        Assert.assertEquals(SegmentIntersector.NO_INTERSECTION, si.compute(0, 0, 4, 4, 0, 1, 4, 5));
+        Assert.assertEquals(SegmentIntersector.NO_INTERSECTION, si.compute(0, 0, 4, 4, 5, 5, 6, 6));
+        Assert.assertEquals(SegmentIntersector.NO_INTERSECTION, si.compute(0, 0, 4, 4, 3, 6, 4, 5));
+
+        Assert.assertTrue(SegmentIntersector.isOnSegment(0, 0, 4, 4, 1, 1));
+        Assert.assertFalse(SegmentIntersector.isOnSegment(0, 0, 4, 4, 5, 5));
+    }
+
+    @Test
+    public void testHorizonFuzz() {
+        for (long seed = 1; seed <= 5; seed++) {
+            RandomInputs inputs = new RandomInputs(seed);
+            for (RandomInputs.ChainShape shape : RandomInputs.ChainShape.values()) {
+                for (int n : new int[] { 1, 2, 10, 1000, 10000 }) {
+                    List<MonotoneChain> chains = inputs.chains(shape, n);
+                    Horizon horizon = new HorizonAlgorithm().computeHorizon(chains);
+                    assertUpperEnvelope("seed " + seed + ", " + shape + ", n=" + n, chains, horizon);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wall-clock timings, only checked if the gates are enabled (see {@link LatencyBaseline})
+     */
+    @Test
+    public void testParallelHorizon() {
+        for (RandomInputs.ChainShape shape : RandomInputs.ChainShape.values()) {
+            List<MonotoneChain> chains = new RandomInputs(3).chains(shape, 20000);
+            MultiLineString expected = new HorizonAlgorithm().computeHorizon(chains).toMultiLineString();
+
+            for (int threshold : new int[] { 1, 64, 1000 }) {
+                HorizonAlgorithm algorithm = new HorizonAlgorithm();
+                algorithm.setParallel(true);
+                algorithm.setParallelThreshold(threshold);
+                MultiLineString result = algorithm.computeHorizon(chains).toMultiLineString();
+                Assert.assertTrue(shape + ", threshold " + threshold, expected.equalsExact(result));
+            }
+        }
+    }
+
+    @Test
+    public void testDelaunayTriangles() {
+        // random points with duplicates: the stream yields the triangles of the JTS triangulation
+        Random rnd = new Random(11);
+        double[] x = new double[2000], y = new double[x.length];
+        List<Coordinate> sites = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (i % 10 == 9) ? x[i - 1] : rnd.nextInt(1000);
+            y[i] = (i % 10 == 9) ? y[i - 1] : rnd.nextInt(1000);
+            sites.add(new Coordinate(x[i], y[i]));
+        }
+        DelaunayTriangulationBuilder builder = new DelaunayTriangulationBuilder();
+        builder.setSites(sites);
+        Geometry expected = builder.getTriangles(new GeometryFactory());
+
+        List<Coordinate> triangles = new ArrayList<>();
+        DelaunayTriangles.triangulate(x, y, (i0, i1, i2) -> {
+            triangles.add(new Coordinate(x[i0], y[i0]));
+            triangles.add(new Coordinate(x[i1], y[i1]));
+            triangles.add(new Coordinate(x[i2], y[i2]));
+        });
+        Assert.assertEquals(3*expected.getNumGeometries(), triangles.size());
+        for (int i = 0; i < expected.getNumGeometries(); i++) {
+            Coordinate[] ring = expected.getGeometryN(i).getCoordinates();
+            for (int j = 0; j < 3; j++) {
+                Assert.assertTrue("triangle " + i, ring[j].equals2D(triangles.get(3*i + j)));
+            }
+        }
+    }
+
+    @Test
+    public void testGridTriangles() {
+        // shuffled 30 x 20 grid of spacing 25 x 10, the boundary nodes 7 and 300 are stored last
+        int cols = 30, rows = 20;
+        double[] x = new double[cols*rows], y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            int node = (i < 7) ? i : (i < 299) ? i + 1 : (i < x.length - 2) ? i + 2 : (i == x.length - 2) ? 7 : 300;
+            x[i] = 677000 + 25*(node % cols);
+            y[i] = 242000 + 10*(node / cols);
+        }
+        Random rnd = new Random(5);
+        for (int i = x.length - 3; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            double t = x[i]; x[i] = x[j]; x[j] = t;
+            t = y[i]; y[i] = y[j]; y[j] = t;
+        }
+
+        GridTriangles grid = GridTriangles.detect(x, y);
+        Assert.assertNotNull(grid);
+        Assert.assertEquals(cols, grid.getColumns());
+        Assert.assertEquals(rows, grid.getRows());
+        Assert.assertEquals(2*(cols - 1)*(rows - 1), countGridTriangles(grid, x, y, 25*10));
+
+        // off-grid point, duplicate point
+        double[] x2 = x.clone();
+        x2[0] += 1;
+        Assert.assertNull(GridTriangles.detect(x2, y));
+        x2[0] = x[1];
+        double[] y2 = y.clone();
+        y2[0] = y[1];
+        Assert.assertNull(GridTriangles.detect(x2, y2));
+        try {
+            GridTriangles.of(x, y, 10, 10);
+            Assert.fail("wrong spacing accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // without the two nodes the grid is only accepted with an explicit spacing;
+        // the missing nodes lie on the boundary, each of them removes three triangles
+        double[] x3 = Arrays.copyOf(x, x.length - 2), y3 = Arrays.copyOf(y, y.length - 2);
+        Assert.assertNull(GridTriangles.detect(x3, y3));
+        grid = GridTriangles.of(x3, y3, 25, 10);
+        Assert.assertEquals(cols, grid.getColumns());
+        Assert.assertEquals(rows, grid.getRows());
+        Assert.assertEquals(2*(cols - 1)*(rows - 1) - 3 - 3, countGridTriangles(grid, x3, y3, 25*10));
+    }
+
+    @Test
+    public void testSparseLatticeTerrain() {
+        // scattered points on an integer lattice aren't a grid: the terrain uses the Delaunay triangulation
+        Random rnd = new Random(21);
+        int size = 100, n = 3000;
+        Set<Integer> nodes = new HashSet<>();
+        while (nodes.size() < n) {
+            nodes.add(rnd.nextInt(size*size));
+        }
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        int i = 0;
+        for (int node : nodes) {
+            x[i] = node % size;
+            y[i] = node / size;
+            z[i++] = rnd.nextDouble();
+        }
+
+        Assert.assertNull(GridTriangles.detect(x, y));
+        int[] count = new int[1];
+        DelaunayTriangles.triangulate(x, y, (i0, i1, i2) -> count[0]++);
+        Assert.assertEquals(count[0], Terrain.of(x, y, z).getTriangleCount());
+        // the explicit grid keeps only the triangles with three existing nodes
+        Assert.assertTrue(countGridTriangles(GridTriangles.of(x, y, 1, 1), x, y, 1) < count[0]/2);
+    }
+
+    /**
+     * Counts the triangles of a grid and checks that they are counterclockwise halves of a cell
+     */
+    private static int countGridTriangles(GridTriangles grid, double[] x, double[] y, double cellArea) {
+        int[] count = new int[1];
+        grid.triangulate((i0, i1, i2) -> {
+            count[0]++;
+            double cross = (x[i1] - x[i0])*(y[i2] - y[i0]) - (x[i2] - x[i0])*(y[i1] - y[i0]);
+            Assert.assertEquals("counterclockwise triangle", cellArea, cross, 0);
+        });
+        return count[0];
+    }
+
+    @Test
+    public void testHorizonService() {
+        // grid terrain and scattered terrain: the batch yields the horizons of the single viewpoints
+        Random rnd = new Random(13);
+        int size = 60;
+        double[] gx = new double[size*size], gy = new double[gx.length], gz = new double[gx.length];
+        double[] sx = new double[gx.length], sy = new double[gx.length], sz = new double[gx.length];
+        for (int i = 0; i < gx.length; i++) {
+            gx[i] = 25*(i % size);
+            gy[i] = 25*(i / size);
+            gz[i] = 400 + 60*Math.sin(gx[i]/230 + gy[i]/370) + 5*rnd.nextDouble();
+            sx[i] = 25*size*rnd.nextDouble();
+            sy[i] = 25*size*rnd.nextDouble();
+            sz[i] = 400 + 60*Math.sin(sx[i]/230 + sy[i]/370);
+        }
+        List<Coordinate> viewPoints = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            viewPoints.add(new Coordinate(25*size*rnd.nextDouble(), 25*size*rnd.nextDouble(), 400 + 100*rnd.nextDouble()));
+        }
+        // below the terrain: no front facing triangle
+        viewPoints.add(new Coordinate(700, 700, -10000));
+
+        double[][][] terrains = { { gx, gy, gz }, { sx, sy, sz } };
+        for (double[][] t : terrains) {
+            Terrain terrain = Terrain.of(t[0], t[1], t[2]);
+            Assert.assertEquals(gx.length, terrain.getVertexCount());
+            HorizonService service = new HorizonService(terrain);
+            List<Horizon> horizons = service.computeHorizons(viewPoints);
+            Assert.assertEquals(viewPoints.size(), horizons.size());
+
+            for (int i = 0; i < viewPoints.size(); i++) {
+                List<MonotoneChain> chains = Main.computeChains(viewPoints.get(i), t[0], t[1], t[2]);
+                MultiLineString expected = new HorizonAlgorithm().computeHorizon(chains).toMultiLineString();
+                Assert.assertTrue("viewpoint " + i, expected.equalsExact(horizons.get(i).toMultiLineString()));
+            }
+            Assert.assertTrue(horizons.get(viewPoints.size() - 1).isEmpty());
+        }
+    }
+
+    @Test
+    public void testHorizonLookup() {
+        List<MonotoneChain> chains = Arrays.asList(
+                new MonotoneChain(new Coordinate(0, 5), new Coordinate(7, 12), new Coordinate(14, 5)),
+                new MonotoneChain(new Coordinate(14, 10), new Coordinate(20, 10)),
+                new MonotoneChain(new Coordinate(30, 0), new Coordinate(40, 10)));
+        Horizon horizon = new HorizonAlgorithm().computeHorizon(chains);
+
+        Assert.assertEquals(8.5, horizon.getMaxY(3.5), 1e-12);
+        Assert.assertEquals(12, horizon.getMaxY(7), 0);
+        Assert.assertEquals(10, horizon.getMaxY(14), 0);   // upper end of the vertical jump
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, horizon.getMaxY(25));
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, horizon.getMaxY(-1));
+
+        Assert.assertEquals(5, horizon.getMinY(0, 20), 0);
+        Assert.assertEquals(7, horizon.getMinY(7, 12), 1e-12);
+        Assert.assertEquals(10, horizon.getMinY(14, 14), 0);
+        Assert.assertEquals(10, horizon.getMinY(40, 40), 0);
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, horizon.getMinY(10, 31));
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, horizon.getMinY(-5, 5));
+    }
+
+    @Test
+    public void testLevelOfDetail() {
+        Random rnd = new Random(17);
+        int size = 80;
+        double[] x = new double[size*size], y = new double[x.length], z = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = 25*(i % size);
+            y[i] = 25*(i / size);
+            z[i] = 400 + 150*Math.sin(x[i]/900)*Math.cos(y[i]/1300) + 60*Math.sin(x[i]/230 + y[i]/370) + 5*rnd.nextDouble();
+        }
+        Terrain terrain = Terrain.of(x, y, z);
+        TerrainQuadtree quadtree = new TerrainQuadtree(terrain);
+        Assert.assertTrue(quadtree.size() > 1);
+
+        for (int i = 0; i < 5; i++) {
+            Coordinate vp = new Coordinate(25*size*rnd.nextDouble(), 25*size*rnd.nextDouble(), 450 + 50*rnd.nextDouble());
+            List<MonotoneChain> chains = terrain.computeChains(vp);
+
+            // culling of hidden tiles doesn't change the horizon
+            assertUpperEnvelope("viewpoint " + i, chains, quadtree.computeHorizon(vp, 0));
+
+            Horizon coarse = quadtree.computeHorizon(vp, 5);
+            Assert.assertTrue("viewpoint " + i + ": coarse horizon is not x-monotone", coarse.isValid());
+            Assert.assertFalse(coarse.isEmpty());
+        }
+    }
+
+    @Test
+    public void testHorizonScaling() {
+        Assume.assumeTrue(LatencyBaseline.isGateEnabled());
+        int[] sizes = { 1 << 11, 1 << 12, 1 << 13, 1 << 14, 1 << 15 };
+
+        for (RandomInputs.ChainShape shape : RandomInputs.ChainShape.values()) {
+            RandomInputs inputs = new RandomInputs(7);
+            ScalingCurve curve = ScalingCurve.measure(sizes, 3, n -> {
+                List<MonotoneChain> chains = inputs.chains(shape, n);
+                return () -> new HorizonAlgorithm().computeHorizon(chains);
+            });
+            // n log n is about 1.1, quadratic behaviour is 2
+            Assert.assertTrue(shape + ": super-linear scaling " + curve, curve.getExponent() < 1.6);
+        }
+    }
+
+    /**
+     * Checks the horizon at random x positions (except vertex positions, where vertical jumps are ambiguous)
+     */
+    private static void assertUpperEnvelope(String name, List<MonotoneChain> chains, Horizon horizon) {
+        Assert.assertTrue(name + ": horizon is not x-monotone", horizon.isValid());
+        MultiLineString result = horizon.toMultiLineString();
+
+        Set<Double> vertexX = new HashSet<>();
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY, scale = 1;
+        Coordinate[][] coords = new Coordinate[chains.size()][];
+        for (int j = 0; j < coords.length; j++) {
+            MonotoneChain mc = chains.get(j);
+            for (int k = 0; k < mc.size(); k++) {
+                vertexX.add(mc.getX(k));
+                scale = Math.max(scale, Math.abs(mc.getY(k)));
+            }
+            minX = Math.min(minX, mc.getMinX());
+            maxX = Math.max(maxX, mc.getMaxX());
+            coords[j] = mc.getCoords();
+        }
+        for (Coordinate c : result.getCoordinates()) {
+            vertexX.add(c.x);
+        }
+
+        Random random = new Random(vertexX.size());
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = minX + (maxX - minX)*random.nextDouble();
+            if (vertexX.contains(x)) continue;
+
+            double expected = Double.NEGATIVE_INFINITY;
+            for (Coordinate[] chain : coords) {
+                expected = Math.max(expected, y(chain, x));
+            }
+            double actual = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < result.getNumGeometries(); j++) {
+                actual = Math.max(actual, y(result.getGeometryN(j).getCoordinates(), x));
+            }
+
+            if (expected == Double.NEGATIVE_INFINITY || actual == Double.NEGATIVE_INFINITY) {
+                Assert.assertEquals(name + " at x=" + x, expected, actual);
+                Assert.assertEquals(name + " lookup at x=" + x, expected, horizon.getMaxY(x));
+            } else {
+                Assert.assertEquals(name + " at x=" + x, expected, actual, 1e-9*scale);
+                Assert.assertEquals(name + " lookup at x=" + x, expected, horizon.getMaxY(x), 1e-9*scale);
+            }
+        }
+    }
+
+    /**
+     * Returns the y value of an x-monotone chain at x or -infinity outside of the chain
+     */
+    private static double y(Coordinate[] chain, double x) {
+        if (x < chain[0].x || x > chain[chain.length - 1].x) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int lo = 0, hi = chain.length - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (chain[mid].x <= x) lo = mid; else hi = mid;
+        }
+        Coordinate a = chain[lo], b = chain[hi];
+        return a.y + (b.y - a.y)*(x - a.x)/(b.x - a.x);
+    }
+}
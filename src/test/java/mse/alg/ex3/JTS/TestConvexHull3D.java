@@ -0,0 +1,126 @@
+package mse.alg.ex3.JTS;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestConvexHull3D {
+
+    @Test
+    public void testCube(){
+        // RGB like integer grid: only the 8 corners are vertices
+        List<MultiCoordinate3D> pts = new ArrayList<>();
+        for (int r = 0; r <= 8; r++) {
+            for (int g = 0; g <= 8; g++) {
+                for (int b = 0; b <= 8; b++) {
+                    pts.add(new MultiCoordinate3D(32*r, 32*g, 32*b));
+                }
+            }
+        }
+        ConvexHull3D hull = new ConvexHull3D(pts);
+        Assert.assertEquals(8, hull.getVertices().length);
+        Assert.assertEquals(12, hull.getFaces().length);
+        Assert.assertEquals(256.0*256*256, hull.getVolume(), 1e-6);
+        for (Coordinate c : hull.getVertices()) {
+            Assert.assertTrue(c instanceof MultiCoordinate3D);
+        }
+        checkHull(hull, pts.toArray(new Coordinate[pts.size()]));
+    }
+
+    @Test
+    public void testSphere(){
+        // every point is a vertex
+        Random rnd = new Random(3);
+        Coordinate[] pts = new Coordinate[1000];
+        for (int i = 0; i < pts.length; i++) {
+            double z = 2*rnd.nextDouble() - 1, a = 2*Math.PI*rnd.nextDouble(), r = Math.sqrt(1 - z*z);
+            pts[i] = new Coordinate(100*r*Math.cos(a), 100*r*Math.sin(a), 100*z);
+        }
+        ConvexHull3D hull = new ConvexHull3D(pts);
+        Assert.assertEquals(pts.length, hull.getVertices().length);
+        Assert.assertEquals(2*pts.length - 4, hull.getFaces().length);
+        checkHull(hull, pts);
+    }
+
+    @Test
+    public void testRandom(){
+        Random rnd = new Random(5);
+        for (int run = 0; run < 50; run++) {
+            int n = 4 + rnd.nextInt(1000);
+            Coordinate[] pts = new Coordinate[n];
+            for (int i = 0; i < n; i++) {
+                pts[i] = (run % 2 == 0)
+                        ? new Coordinate(rnd.nextInt(20), rnd.nextInt(20), rnd.nextInt(20))
+                        : new Coordinate(1000 + rnd.nextGaussian(), -500 + 10*rnd.nextGaussian(), rnd.nextGaussian());
+            }
+            checkHull(new ConvexHull3D(pts), pts);
+        }
+    }
+
+    @Test
+    public void testCoplanarAndCollinear(){
+        // points on the edges and faces of a tetrahedron: with these seeds an eye is collinear
+        // with a horizon edge up to rounding
+        for (long seed : new long[] { 1381, 4995 }) {
+            Random rnd = new Random(seed);
+            Coordinate[] corners = new Coordinate[4];
+            for (int i = 0; i < 4; i++) {
+                corners[i] = new Coordinate(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+            }
+            Coordinate[] pts = new Coordinate[12];
+            for (int i = 0; i < pts.length; i++) {
+                Coordinate a = corners[i % 4], b = corners[(i + 1 + rnd.nextInt(3)) % 4], c = corners[rnd.nextInt(4)];
+                double s = rnd.nextDouble(), t = (i % 2 == 0) ? 0 : rnd.nextDouble()*(1 - s);
+                pts[i] = new Coordinate(a.x + s*(b.x - a.x) + t*(c.x - a.x),
+                        a.y + s*(b.y - a.y) + t*(c.y - a.y), a.z + s*(b.z - a.z) + t*(c.z - a.z));
+            }
+            checkHull(new ConvexHull3D(pts), pts);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoplanar(){
+        new ConvexHull3D(new Coordinate[] {
+                new Coordinate(0, 0, 1), new Coordinate(1, 0, 1), new Coordinate(0, 1, 1), new Coordinate(1, 1, 1) });
+    }
+
+    /**
+     * Closed 2-manifold (Euler), outward oriented, containing all points
+     */
+    private static void checkHull(ConvexHull3D hull, Coordinate[] pts) {
+        Coordinate[] v = hull.getVertices();
+        int[][] faces = hull.getFaces();
+
+        Set<Long> edges = new HashSet<>();
+        for (int[] f : faces) {
+            for (int k = 0; k < 3; k++) {
+                Assert.assertTrue("directed edge twice", edges.add((long)f[k]*v.length + f[(k + 1) % 3]));
+            }
+        }
+        for (int[] f : faces) {
+            for (int k = 0; k < 3; k++) {
+                Assert.assertTrue("open edge", edges.contains((long)f[(k + 1) % 3]*v.length + f[k]));
+            }
+        }
+        Assert.assertEquals(2, v.length - edges.size()/2 + faces.length);
+        Assert.assertTrue(hull.getVolume() > 0);
+
+        for (int[] f : faces) {
+            Coordinate a = v[f[0]], b = v[f[1]], c = v[f[2]];
+            double ux = b.x - a.x, uy = b.y - a.y, uz = b.z - a.z;
+            double wx = c.x - a.x, wy = c.y - a.y, wz = c.z - a.z;
+            double nx = uy*wz - uz*wy, ny = uz*wx - ux*wz, nz = ux*wy - uy*wx;
+            double len = Math.sqrt(nx*nx + ny*ny + nz*nz);
+            Assert.assertTrue("degenerate face", len > 0);
+            for (Coordinate p : pts) {
+                double d = (nx*(p.x - a.x) + ny*(p.y - a.y) + nz*(p.z - a.z))/len;
+                Assert.assertTrue(p + " outside by " + d, d <= 2*hull.getTolerance());
+            }
+        }
+    }
+}